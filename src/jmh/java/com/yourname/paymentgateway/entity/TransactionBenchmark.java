@@ -0,0 +1,39 @@
+package com.yourname.paymentgateway.entity;
+
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State machine cost for a payment's normal lifecycle, including the domain
+ * event registered on every transition.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBenchmark {
+    
+    @Benchmark
+    public Transaction transitionToCompleted() {
+        // A fresh aggregate each time so registered events do not accumulate
+        Transaction transaction = Transaction.builder()
+            .transactionId(UUID.randomUUID())
+            .amount(new BigDecimal("149.99"))
+            .currency("USD")
+            .status(TransactionStatus.PENDING)
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .build();
+        
+        transaction.transitionTo(TransactionStatus.PROCESSING);
+        transaction.transitionTo(TransactionStatus.COMPLETED);
+        return transaction;
+    }
+}
+
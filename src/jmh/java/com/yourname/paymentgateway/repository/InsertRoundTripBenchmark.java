@@ -0,0 +1,178 @@
+package com.yourname.paymentgateway.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database round trips for creating transactions (transaction, history and
+ * payment job rows) the way Hibernate issues them under IDENTITY keys versus
+ * pooled sequences with JDBC batching. The roundTrips and transactions
+ * counters in the JSON result give round trips per created transaction.
+ * Runs against a Testcontainers PostgreSQL with the Flyway schema, so Docker
+ * is required.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertRoundTripBenchmark {
+    
+    // Matches spring.jpa.properties.hibernate.jdbc.batch_size and allocationSize
+    private static final int BATCH_SIZE = 20;
+    private static final int ALLOCATION_SIZE = 50;
+    
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private long merchantId;
+    private long keySequence;
+    private final Map<String, long[]> idBlocks = new HashMap<>();
+    
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long roundTrips;
+        public long transactions;
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        Flyway.configure()
+            .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+            .load()
+            .migrate();
+        
+        connection = DriverManager.getConnection(
+            postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+            postgres.getUsername(),
+            postgres.getPassword()
+        );
+        connection.setAutoCommit(false);
+        
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "INSERT INTO merchants (merchant_code, business_name, email, api_key_hash, status) " +
+                 "VALUES ('BENCH', 'Benchmark', 'bench@example.com', 'hash', 'ACTIVE') RETURNING id")) {
+            rs.next();
+            merchantId = rs.getLong(1);
+        }
+        connection.commit();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+    
+    @Benchmark
+    public void identityInserts(Counters counters) throws SQLException {
+        try (PreparedStatement insertTransaction = connection.prepareStatement(
+                 "INSERT INTO transactions (merchant_id, idempotency_key, amount, status, payment_method) " +
+                 "VALUES (?, ?, ?, 'PENDING', 'CREDIT_CARD') RETURNING id, created_at");
+             PreparedStatement insertHistory = connection.prepareStatement(
+                 "INSERT INTO transaction_history (transaction_id, to_status, changed_by) VALUES (?, 'PENDING', 'SYSTEM')");
+             PreparedStatement insertJob = connection.prepareStatement(
+                 "INSERT INTO payment_jobs (transaction_id, transaction_created_at) VALUES (?, ?)")) {
+            
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                insertTransaction.setLong(1, merchantId);
+                insertTransaction.setString(2, "bench-" + keySequence++);
+                insertTransaction.setBigDecimal(3, new BigDecimal("10.00"));
+                long transactionId;
+                Timestamp createdAt;
+                try (ResultSet rs = insertTransaction.executeQuery()) {
+                    rs.next();
+                    transactionId = rs.getLong(1);
+                    createdAt = rs.getTimestamp(2);
+                }
+                
+                insertHistory.setLong(1, transactionId);
+                insertHistory.executeUpdate();
+                insertJob.setLong(1, transactionId);
+                insertJob.setTimestamp(2, createdAt);
+                insertJob.executeUpdate();
+                counters.roundTrips += 3;
+            }
+        }
+        connection.commit();
+        counters.transactions += BATCH_SIZE;
+    }
+    
+    @Benchmark
+    public void pooledBatchInserts(Counters counters) throws SQLException {
+        try (PreparedStatement insertTransaction = connection.prepareStatement(
+                 "INSERT INTO transactions (id, merchant_id, idempotency_key, amount, status, payment_method, created_at) " +
+                 "VALUES (?, ?, ?, ?, 'PENDING', 'CREDIT_CARD', ?)");
+             PreparedStatement insertHistory = connection.prepareStatement(
+                 "INSERT INTO transaction_history (id, transaction_id, to_status, changed_by) " +
+                 "VALUES (?, ?, 'PENDING', 'SYSTEM')");
+             PreparedStatement insertJob = connection.prepareStatement(
+                 "INSERT INTO payment_jobs (id, transaction_id, transaction_created_at) VALUES (?, ?, ?)")) {
+            
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                long transactionId = nextId("transactions_id_seq", counters);
+                Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+                insertTransaction.setLong(1, transactionId);
+                insertTransaction.setLong(2, merchantId);
+                insertTransaction.setString(3, "bench-" + keySequence++);
+                insertTransaction.setBigDecimal(4, new BigDecimal("10.00"));
+                insertTransaction.setTimestamp(5, createdAt);
+                insertTransaction.addBatch();
+                
+                insertHistory.setLong(1, nextId("transaction_history_id_seq", counters));
+                insertHistory.setLong(2, transactionId);
+                insertHistory.addBatch();
+                insertJob.setLong(1, nextId("payment_jobs_id_seq", counters));
+                insertJob.setLong(2, transactionId);
+                insertJob.setTimestamp(3, createdAt);
+                insertJob.addBatch();
+            }
+            
+            // Parent rows first, as hibernate.order_inserts arranges
+            insertTransaction.executeBatch();
+            insertHistory.executeBatch();
+            insertJob.executeBatch();
+            counters.roundTrips += 3;
+        }
+        connection.commit();
+        counters.transactions += BATCH_SIZE;
+    }
+    
+    /**
+     * Hibernate's pooled optimizer: one nextval hands out a block of
+     * ALLOCATION_SIZE ids ending at the returned value.
+     */
+    private long nextId(String sequence, Counters counters) throws SQLException {
+        long[] block = idBlocks.get(sequence);
+        if (block == null || block[0] > block[1]) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT nextval('" + sequence + "')")) {
+                rs.next();
+                long hi = rs.getLong(1);
+                block = new long[] {hi - ALLOCATION_SIZE + 1, hi};
+                idBlocks.put(sequence, block);
+            }
+            counters.roundTrips++;
+        }
+        return block[0]++;
+    }
+}
+
@@ -0,0 +1,67 @@
+package com.yourname.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourname.paymentgateway.config.JacksonConfig;
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.util.HashUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The serialization work {@link IdempotencyService} does around the database:
+ * writing and hashing a response when caching it, and reading it back on a
+ * client retry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyJsonBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private TransactionResponse response;
+    private String responseBody;
+    
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new JacksonConfig().objectMapper();
+        response = TransactionResponse.builder()
+            .transactionId(UUID.randomUUID())
+            .amount(new BigDecimal("149.99"))
+            .currency("USD")
+            .status(TransactionStatus.PENDING)
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .description("Concert ticket")
+            .customerEmail("customer@example.com")
+            .customerName("Test Customer")
+            .createdAt(LocalDateTime.now())
+            .build();
+        responseBody = objectMapper.writeValueAsString(response);
+    }
+    
+    @Benchmark
+    public String cacheResponse() throws Exception {
+        String body = objectMapper.writeValueAsString(response);
+        return HashUtil.sha256(body) + body.length();
+    }
+    
+    @Benchmark
+    public TransactionResponse readCachedResponse() throws Exception {
+        return objectMapper.readValue(responseBody, TransactionResponse.class);
+    }
+    
+    @Benchmark
+    public TransactionResponse roundTrip() throws Exception {
+        String body = objectMapper.writeValueAsString(response);
+        return objectMapper.readValue(body, TransactionResponse.class);
+    }
+}
+
@@ -0,0 +1,49 @@
+package com.yourname.paymentgateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter throughput under contention: every thread hitting one hot
+ * merchant's bucket versus threads spread over many merchants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimitServiceBenchmark {
+    
+    private static final long HOT_MERCHANT = 1L;
+    private static final int MERCHANTS = 1024;
+    
+    private RateLimitService rateLimitService;
+    
+    @Setup
+    public void setUp() {
+        // Large enough that the bucket never runs dry during a measurement
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        rateLimitService = new RateLimitService(
+            new LocalRateLimiter(meterRegistry, 10_000, Duration.ofMinutes(10)),
+            new PaymentMetrics(meterRegistry),
+            Integer.MAX_VALUE
+        );
+    }
+    
+    @Benchmark
+    public boolean tryConsumeSingleMerchant() {
+        return rateLimitService.tryConsume(HOT_MERCHANT);
+    }
+    
+    @Benchmark
+    public boolean tryConsumeManyMerchants() {
+        return rateLimitService.tryConsume((long) ThreadLocalRandom.current().nextInt(MERCHANTS));
+    }
+}
+
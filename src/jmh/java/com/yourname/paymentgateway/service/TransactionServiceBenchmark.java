@@ -0,0 +1,49 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionServiceBenchmark {
+    
+    private TransactionService transactionService;
+    private Transaction transaction;
+    
+    @Setup
+    public void setUp() {
+        // mapToResponse touches none of the collaborators
+        transactionService = new TransactionService(null, null, null, null, null, null, null, null, null, null);
+        transaction = Transaction.builder()
+            .id(1L)
+            .transactionId(UUID.randomUUID())
+            .amount(new BigDecimal("149.99"))
+            .currency("USD")
+            .status(TransactionStatus.COMPLETED)
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .description("Concert ticket")
+            .customerEmail("customer@example.com")
+            .customerName("Test Customer")
+            .createdAt(LocalDateTime.now())
+            .completedAt(LocalDateTime.now())
+            .build();
+    }
+    
+    @Benchmark
+    public TransactionResponse mapToResponse() {
+        return transactionService.mapToResponse(transaction);
+    }
+}
+
@@ -0,0 +1,71 @@
+package com.yourname.paymentgateway.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing and signing cost per request: API key lookup hashes every request,
+ * idempotency caching hashes every response, and each webhook is signed.
+ * The merchant variants sign for a rotating set of secrets, as the webhook
+ * dispatcher does within one batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+    
+    private static final String SECRET = "whsec_benchmark_secret";
+    private static final int MERCHANTS = 1000;
+    
+    private String apiKey;
+    private String payload;
+    private String signature;
+    private String[] merchantSecrets;
+    private int nextMerchant;
+    
+    @Setup
+    public void setUp() {
+        apiKey = "pk_test_4f9c2b7e1a8d4c6b9e0f3a5d7c1b2e4f";
+        payload = "{\"eventType\":\"transaction.completed\","
+            + "\"transactionId\":\"6f1c3b9e-2a47-4d8e-9b5c-0e7a1f2d3c4b\","
+            + "\"amount\":149.99,\"currency\":\"USD\",\"status\":\"COMPLETED\","
+            + "\"timestamp\":\"2024-01-15T10:30:00\"}";
+        signature = SignatureUtil.generateHmacSignature(payload, SECRET);
+        merchantSecrets = new String[MERCHANTS];
+        for (int i = 0; i < MERCHANTS; i++) {
+            merchantSecrets[i] = "whsec_merchant_" + i;
+        }
+    }
+    
+    @Benchmark
+    public String sha256ApiKey() {
+        return HashUtil.sha256(apiKey);
+    }
+    
+    @Benchmark
+    public String sha256Payload() {
+        return HashUtil.sha256(payload);
+    }
+    
+    @Benchmark
+    public String generateHmacSignature() {
+        return SignatureUtil.generateHmacSignature(payload, SECRET);
+    }
+    
+    @Benchmark
+    public String generateHmacSignatureAcrossMerchants() {
+        String secret = merchantSecrets[nextMerchant];
+        nextMerchant = (nextMerchant + 1) % MERCHANTS;
+        return SignatureUtil.generateHmacSignature(payload, secret);
+    }
+    
+    @Benchmark
+    public boolean verifySignature() {
+        return SignatureUtil.verifySignature(payload, signature, SECRET);
+    }
+}
+
@@ -1,25 +1,128 @@
 package com.yourname.paymentgateway.config;
 
+import com.yourname.paymentgateway.service.PaymentMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * One executor per workload, each with its own bounded queue and rejection
+ * policy, so a burst of one kind of work cannot starve the others. Queue
+ * depth and pool size are exported per executor, and rejections are counted
+ * in executor.rejected.
+ */
 @Configuration
 @EnableAsync
+@Slf4j
 public class AsyncConfig {
     
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    /**
+     * Runs refund dispatch after the refund row commits. When the queue is
+     * full the task is dropped and counted; the refund stays PENDING and is
+     * picked up by RefundProcessor.recoverStalled, so nothing is lost.
+     * BackpressureInterceptor turns new refund requests away with 503 well
+     * before that point.
+     */
+    @Bean(name = "refundExecutor")
+    public ThreadPoolTaskExecutor refundExecutor(
+        MeterRegistry meterRegistry,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.executors.refund.core-size:4}") int coreSize,
+        @Value("${app.executors.refund.max-size:8}") int maxSize,
+        @Value("${app.executors.refund.queue-capacity:200}") int queueCapacity
+    ) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("payment-gateway-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("refund-");
+        executor.setRejectedExecutionHandler(counting("refundExecutor", paymentMetrics, (task, pool) ->
+            log.warn("Refund executor saturated; refund left PENDING for stalled-refund recovery")
+        ));
         executor.initialize();
+        monitor(executor, "refundExecutor", meterRegistry);
         return executor;
     }
+    
+    /**
+     * Worker pool for the durable payment queue. Threads only run the claim
+     * transaction and start the processor call, so app.payment-queue.concurrency
+     * is sized for the connection pool. The worker never has more jobs than
+     * max-in-flight dispatched, so a queue of that size never fills up and
+     * dispatch never blocks the scheduling thread that polls the queue.
+     */
+    @Bean(name = "paymentQueueExecutor")
+    public ThreadPoolTaskExecutor paymentQueueExecutor(
+        MeterRegistry meterRegistry,
+        @Value("${app.payment-queue.concurrency:4}") int concurrency,
+        @Value("${app.payment-queue.max-in-flight:200}") int maxInFlight
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(maxInFlight);
+        executor.setThreadNamePrefix("payment-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        monitor(executor, "paymentQueueExecutor", meterRegistry);
+        return executor;
+    }
+    
+    /**
+     * Completes payment processor futures. Processor calls themselves hold
+     * no thread while in flight; this pool only runs the short outcome
+     * transactions that follow them.
+     */
+    @Bean(name = "processorCallbackExecutor")
+    public ThreadPoolTaskExecutor processorCallbackExecutor(
+        MeterRegistry meterRegistry,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.payment-processor.callback-threads:8}") int threads,
+        @Value("${app.payment-processor.callback-queue-capacity:10000}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("processor-callback-");
+        // Completing on the HTTP client or timer thread beats losing an outcome
+        executor.setRejectedExecutionHandler(
+            counting("processorCallbackExecutor", paymentMetrics, new ThreadPoolExecutor.CallerRunsPolicy())
+        );
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        monitor(executor, "processorCallbackExecutor", meterRegistry);
+        return executor;
+    }
+    
+    private static RejectedExecutionHandler counting(
+        String name,
+        PaymentMetrics paymentMetrics,
+        RejectedExecutionHandler delegate
+    ) {
+        return (task, pool) -> {
+            paymentMetrics.recordExecutorRejection(name);
+            delegate.rejectedExecution(task, pool);
+        };
+    }
+    
+    /**
+     * Publishes executor.active, executor.queued, executor.pool.size and
+     * friends, tagged name=beanName.
+     */
+    private static void monitor(ThreadPoolTaskExecutor executor, String name, MeterRegistry meterRegistry) {
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
+    }
 }
 
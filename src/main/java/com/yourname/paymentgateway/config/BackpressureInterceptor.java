@@ -0,0 +1,81 @@
+package com.yourname.paymentgateway.config;
+
+import com.yourname.paymentgateway.exception.ServiceOverloadedException;
+import com.yourname.paymentgateway.service.PaymentBacklogMonitor;
+import com.yourname.paymentgateway.service.PaymentMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Rejects new payments and refunds with 503 and Retry-After while the work
+ * they would add is already backed up, instead of accepting work the system
+ * cannot keep up with. Payments are gated on the payment_jobs backlog, as
+ * sampled by PaymentBacklogMonitor; refunds on the refund executor queue.
+ */
+@Component
+public class BackpressureInterceptor implements HandlerInterceptor {
+    
+    private final PaymentBacklogMonitor paymentBacklog;
+    private final ThreadPoolTaskExecutor refundExecutor;
+    private final PaymentMetrics paymentMetrics;
+    private final double queueThreshold;
+    private final long retryAfterSeconds;
+    
+    public BackpressureInterceptor(
+        PaymentBacklogMonitor paymentBacklog,
+        @Qualifier("refundExecutor") ThreadPoolTaskExecutor refundExecutor,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.executors.backpressure.queue-threshold:0.8}") double queueThreshold,
+        @Value("${app.executors.backpressure.retry-after-seconds:5}") long retryAfterSeconds
+    ) {
+        this.paymentBacklog = paymentBacklog;
+        this.refundExecutor = refundExecutor;
+        this.paymentMetrics = paymentMetrics;
+        this.queueThreshold = queueThreshold;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    @Override
+    public boolean preHandle(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Object handler
+    ) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        
+        // Registered for the payment and refund creation paths only
+        if (request.getRequestURI().endsWith("/refunds")) {
+            admit("refund", queueUtilization(refundExecutor) >= queueThreshold);
+        } else {
+            admit("payment", paymentBacklog.isBacklogged());
+        }
+        return true;
+    }
+    
+    private void admit(String workload, boolean overloaded) {
+        if (overloaded) {
+            paymentMetrics.recordBackpressureRejection(workload);
+            throw new ServiceOverloadedException(
+                "Too many " + workload + "s in progress, please retry later",
+                retryAfterSeconds
+            );
+        }
+    }
+    
+    static double queueUtilization(ThreadPoolTaskExecutor executor) {
+        BlockingQueue<Runnable> queue = executor.getThreadPoolExecutor().getQueue();
+        int queued = queue.size();
+        int capacity = queued + queue.remainingCapacity();
+        return capacity == 0 ? 0 : (double) queued / capacity;
+    }
+}
+
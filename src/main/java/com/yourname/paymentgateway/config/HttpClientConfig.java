@@ -0,0 +1,48 @@
+package com.yourname.paymentgateway.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+@Configuration
+public class HttpClientConfig {
+    
+    /**
+     * Shared non-blocking client for merchant webhooks. Connections are kept
+     * alive and reused per host by the client's internal pool.
+     */
+    @Bean
+    public HttpClient webhookHttpClient(
+        @Value("${app.webhook.delivery.connect-timeout-ms:2000}") long connectTimeoutMs
+    ) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+    
+    /**
+     * Pooled client for the payment processor. Responses and dependent
+     * stages run on the processor callback pool rather than the client's
+     * default cached pool.
+     */
+    @Bean
+    public HttpClient paymentProcessorHttpClient(
+        @Qualifier("processorCallbackExecutor") Executor processorCallbackExecutor,
+        @Value("${app.payment-processor.http.connect-timeout-ms:2000}") long connectTimeoutMs
+    ) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(processorCallbackExecutor)
+            .build();
+    }
+}
+
@@ -0,0 +1,109 @@
+package com.yourname.paymentgateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourname.paymentgateway.service.HttpPaymentProcessorClient;
+import com.yourname.paymentgateway.service.PaymentMetrics;
+import com.yourname.paymentgateway.service.PaymentProcessorClient;
+import com.yourname.paymentgateway.service.ResilientPaymentProcessorClient;
+import com.yourname.paymentgateway.service.StubPaymentProcessorClient;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * app.payment-processor.mode=stub (default) simulates the processor
+ * in-process for local runs and load tests; app.payment-processor.mode=http
+ * calls the processor at app.payment-processor.http.base-url. Either way the
+ * client is wrapped in circuit breakers and a bulkhead.
+ */
+@Configuration
+public class PaymentProcessorConfig {
+    
+    @Bean
+    @Qualifier("processorDelegate")
+    @ConditionalOnProperty(name = "app.payment-processor.mode", havingValue = "stub", matchIfMissing = true)
+    public PaymentProcessorClient stubPaymentProcessorClient(
+        @Qualifier("processorCallbackExecutor") Executor processorCallbackExecutor,
+        @Value("${app.payment-processor.stub.latency-min-ms:1000}") long latencyMinMs,
+        @Value("${app.payment-processor.stub.latency-max-ms:3000}") long latencyMaxMs,
+        @Value("${app.payment-processor.stub.tail-rate:0.0}") double tailRate,
+        @Value("${app.payment-processor.stub.tail-latency-ms:10000}") long tailLatencyMs,
+        @Value("${app.payment-processor.stub.refund-latency-ms:500}") long refundLatencyMs,
+        @Value("${app.payment-processor.success-rate:0.9}") double successRate,
+        @Value("${app.payment-processor.stub.error-rate:0.0}") double errorRate,
+        @Value("${app.payment-processor.stub.timeout-rate:0.0}") double timeoutRate,
+        @Value("${app.payment-processor.timeout:30000}") long timeoutMs
+    ) {
+        return new StubPaymentProcessorClient(processorCallbackExecutor, new StubPaymentProcessorClient.Settings(
+            latencyMinMs, latencyMaxMs, tailRate, tailLatencyMs, refundLatencyMs,
+            successRate, errorRate, timeoutRate, timeoutMs
+        ));
+    }
+    
+    @Bean
+    @Qualifier("processorDelegate")
+    @ConditionalOnProperty(name = "app.payment-processor.mode", havingValue = "http")
+    public PaymentProcessorClient httpPaymentProcessorClient(
+        @Qualifier("paymentProcessorHttpClient") HttpClient httpClient,
+        ObjectMapper objectMapper,
+        @Value("${app.payment-processor.http.base-url}") String baseUrl,
+        @Value("${app.payment-processor.http.api-key:}") String apiKey,
+        @Value("${app.payment-processor.timeout:30000}") long timeoutMs
+    ) {
+        return new HttpPaymentProcessorClient(httpClient, objectMapper, baseUrl, apiKey, Duration.ofMillis(timeoutMs));
+    }
+    
+    @Bean
+    @Primary
+    public PaymentProcessorClient paymentProcessorClient(
+        @Qualifier("processorDelegate") PaymentProcessorClient delegate,
+        PaymentMetrics paymentMetrics,
+        MeterRegistry meterRegistry,
+        @Value("${app.payment-processor.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+        @Value("${app.payment-processor.circuit-breaker.slow-call-ms:10000}") long slowCallMs,
+        @Value("${app.payment-processor.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+        @Value("${app.payment-processor.circuit-breaker.minimum-calls:20}") int minimumCalls,
+        @Value("${app.payment-processor.circuit-breaker.open-seconds:30}") long openSeconds,
+        @Value("${app.payment-processor.bulkhead.max-concurrent-calls:200}") int maxConcurrentCalls
+    ) {
+        CircuitBreakerRegistry breakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(minimumCalls)
+            .waitDurationInOpenState(Duration.ofSeconds(openSeconds))
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .build());
+        
+        // Callers never wait for a permit: a full bulkhead means requeue now
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead("payment-processor");
+        
+        ResilientPaymentProcessorClient client =
+            new ResilientPaymentProcessorClient(delegate, breakerRegistry, bulkhead, paymentMetrics);
+        
+        // State, failure rate and call outcome gauges for every breaker, tagged by name
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        return client;
+    }
+}
+
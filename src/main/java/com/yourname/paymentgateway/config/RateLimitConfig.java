@@ -0,0 +1,38 @@
+package com.yourname.paymentgateway.config;
+
+import com.yourname.paymentgateway.repository.ApiRateLimitRepository;
+import com.yourname.paymentgateway.service.DistributedRateLimiter;
+import com.yourname.paymentgateway.service.LocalRateLimiter;
+import com.yourname.paymentgateway.service.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class RateLimitConfig {
+    
+    /**
+     * app.rate-limit.mode=local keeps buckets in memory per node;
+     * app.rate-limit.mode=distributed shares each merchant's limit across
+     * the cluster through the api_rate_limits table.
+     */
+    @Bean
+    public RateLimiter rateLimiter(
+        ApiRateLimitRepository rateLimitRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.rate-limit.mode:local}") String mode,
+        @Value("${app.rate-limit.lease-size:10}") int leaseSize,
+        @Value("${app.rate-limit.max-buckets:100000}") long maxBuckets,
+        @Value("${app.rate-limit.idle-eviction-minutes:10}") long idleEvictionMinutes
+    ) {
+        Duration idleTimeout = Duration.ofMinutes(idleEvictionMinutes);
+        if ("distributed".equalsIgnoreCase(mode)) {
+            return new DistributedRateLimiter(rateLimitRepository, meterRegistry, leaseSize, maxBuckets, idleTimeout);
+        }
+        return new LocalRateLimiter(meterRegistry, maxBuckets, idleTimeout);
+    }
+}
+
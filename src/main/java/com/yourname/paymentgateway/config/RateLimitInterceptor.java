@@ -1,11 +1,13 @@
 package com.yourname.paymentgateway.config;
 
 import com.yourname.paymentgateway.exception.RateLimitExceededException;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
 import com.yourname.paymentgateway.security.MerchantDetails;
 import com.yourname.paymentgateway.service.RateLimitService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -27,15 +29,15 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         
         if (authentication != null && authentication.getPrincipal() instanceof MerchantDetails) {
             MerchantDetails merchantDetails = (MerchantDetails) authentication.getPrincipal();
-            Long merchantId = merchantDetails.getMerchant().getId();
+            AuthenticatedMerchant merchant = merchantDetails.getMerchant();
             
-            if (!rateLimitService.tryConsume(merchantId)) {
-                response.setStatus(HttpServletResponse.SC_TOO_MANY_REQUESTS);
+            if (!rateLimitService.tryConsume(merchant)) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
                 response.setContentType("application/json");
                 response.getWriter().write(
                     String.format(
                         "{\"error\": \"Rate limit exceeded\", \"retryAfter\": 60, \"availableTokens\": %d}",
-                        rateLimitService.getAvailableTokens(merchantId)
+                        rateLimitService.getAvailableTokens(merchant)
                     )
                 );
                 return false;
@@ -11,12 +11,15 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig implements WebMvcConfigurer {
     
     private final RateLimitInterceptor rateLimitInterceptor;
+    private final BackpressureInterceptor backpressureInterceptor;
     
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitInterceptor)
             .addPathPatterns("/api/v1/**")
             .excludePathPatterns("/actuator/**", "/swagger-ui/**", "/v3/api-docs/**");
+        registry.addInterceptor(backpressureInterceptor)
+            .addPathPatterns("/api/v1/transactions", "/api/v1/transactions/batch", "/api/v1/transactions/*/refunds");
     }
     
     @Override
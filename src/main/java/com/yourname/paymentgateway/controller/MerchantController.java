@@ -1,11 +1,14 @@
 package com.yourname.paymentgateway.controller;
 
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.repository.MerchantRepository;
 import com.yourname.paymentgateway.security.MerchantDetails;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -21,12 +24,16 @@ import java.util.Map;
 @SecurityRequirement(name = "API-Key")
 public class MerchantController {
     
+    private final MerchantRepository merchantRepository;
+    
     @GetMapping("/me")
     @Operation(summary = "Get current merchant information")
     public ResponseEntity<Map<String, Object>> getCurrentMerchant(
         @AuthenticationPrincipal MerchantDetails merchantDetails
     ) {
-        var merchant = merchantDetails.getMerchant();
+        // The principal only carries a cached snapshot; read the full row
+        Merchant merchant = merchantRepository.findById(merchantDetails.getMerchant().id())
+            .orElseThrow(() -> new BadCredentialsException("Merchant no longer exists"));
         
         Map<String, Object> response = new HashMap<>();
         response.put("merchantId", merchant.getId());
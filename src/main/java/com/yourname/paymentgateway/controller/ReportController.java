@@ -43,7 +43,7 @@ public class ReportController {
         }
         
         List<DailySummaryResponse> summary = reportService.getDailySummary(
-            merchantDetails.getMerchant().getId(),
+            merchantDetails.getMerchant().id(),
             startDate,
             endDate
         );
@@ -66,7 +66,7 @@ public class ReportController {
         }
         
         RevenueReportResponse report = reportService.getRevenueReport(
-            merchantDetails.getMerchant().getId(),
+            merchantDetails.getMerchant().id(),
             startDate,
             endDate
         );
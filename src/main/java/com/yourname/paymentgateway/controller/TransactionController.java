@@ -1,23 +1,33 @@
 package com.yourname.paymentgateway.controller;
 
+import com.yourname.paymentgateway.dto.request.BatchCreateTransactionRequest;
 import com.yourname.paymentgateway.dto.request.CreateTransactionRequest;
+import com.yourname.paymentgateway.dto.response.BatchTransactionResponse;
+import com.yourname.paymentgateway.dto.response.CursorPagedResponse;
 import com.yourname.paymentgateway.dto.response.TransactionResponse;
-import com.yourname.paymentgateway.entity.Merchant;
 import com.yourname.paymentgateway.entity.TransactionHistory;
+import com.yourname.paymentgateway.exception.RateLimitExceededException;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
 import com.yourname.paymentgateway.security.MerchantDetails;
+import com.yourname.paymentgateway.service.RateLimitService;
+import com.yourname.paymentgateway.service.TransactionExportService;
 import com.yourname.paymentgateway.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +39,8 @@ import java.util.UUID;
 public class TransactionController {
     
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final RateLimitService rateLimitService;
     
     /**
      * POST /api/v1/transactions
@@ -41,7 +53,7 @@ public class TransactionController {
         @RequestHeader("Idempotency-Key") String idempotencyKey,
         @Valid @RequestBody CreateTransactionRequest request
     ) {
-        Merchant merchant = merchantDetails.getMerchant();
+        AuthenticatedMerchant merchant = merchantDetails.getMerchant();
         
         TransactionResponse response = transactionService.createTransaction(
             merchant,
@@ -54,6 +66,39 @@ public class TransactionController {
             .body(response);
     }
     
+    /**
+     * POST /api/v1/transactions/batch
+     * Creates up to 100 transactions, each with its own idempotency key.
+     * Every item counts against the merchant's rate limit.
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Create transactions in a batch")
+    public ResponseEntity<BatchTransactionResponse> createTransactions(
+        @AuthenticationPrincipal MerchantDetails merchantDetails,
+        @Valid @RequestBody BatchCreateTransactionRequest request
+    ) {
+        AuthenticatedMerchant merchant = merchantDetails.getMerchant();
+        
+        // The interceptor already took one token for the request itself
+        int extraTokens = request.getItems().size() - 1;
+        if (extraTokens > 0 && !rateLimitService.tryConsume(merchant, extraTokens)) {
+            throw new RateLimitExceededException(String.format(
+                "Batch of %d items exceeds the remaining rate limit (%d available)",
+                request.getItems().size(),
+                rateLimitService.getAvailableTokens(merchant)
+            ));
+        }
+        
+        BatchTransactionResponse response = transactionService.createTransactions(
+            merchant,
+            request.getItems()
+        );
+        
+        return ResponseEntity
+            .status(HttpStatus.CREATED)
+            .body(response);
+    }
+    
     /**
      * GET /api/v1/transactions/{transactionId}
      * Retrieves a specific transaction by ID.
@@ -75,16 +120,32 @@ public class TransactionController {
     /**
      * GET /api/v1/transactions
      * Lists transactions with pagination and filtering.
+     * Passing {@code cursor} (empty for the first page) switches to keyset
+     * pagination, which skips the total count and stays fast on deep pages.
      */
     @GetMapping
     @Operation(summary = "List transactions with pagination")
-    public ResponseEntity<Page<TransactionResponse>> listTransactions(
+    public ResponseEntity<?> listTransactions(
         @AuthenticationPrincipal MerchantDetails merchantDetails,
         @RequestParam(required = false) String status,
         @RequestParam(required = false) String startDate,
         @RequestParam(required = false) String endDate,
+        @RequestParam(required = false) String cursor,
         Pageable pageable
     ) {
+        if (cursor != null) {
+            CursorPagedResponse<TransactionResponse> transactions = transactionService.listTransactionsByCursor(
+                merchantDetails.getMerchant(),
+                status,
+                startDate,
+                endDate,
+                cursor,
+                pageable.getPageSize()
+            );
+            
+            return ResponseEntity.ok(transactions);
+        }
+        
         Page<TransactionResponse> transactions = transactionService.listTransactions(
             merchantDetails.getMerchant(),
             status,
@@ -96,6 +157,40 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
     
+    /**
+     * GET /api/v1/transactions/export
+     * Streams all matching transactions as NDJSON (default) or CSV.
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export transactions as NDJSON or CSV")
+    public void exportTransactions(
+        @AuthenticationPrincipal MerchantDetails merchantDetails,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String startDate,
+        @RequestParam(required = false) String endDate,
+        @RequestParam(defaultValue = "ndjson") String format,
+        HttpServletResponse response
+    ) throws IOException {
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.fromParameter(format);
+        
+        transactionExportService.export(
+            merchantDetails.getMerchant(),
+            status,
+            startDate,
+            endDate,
+            exportFormat,
+            selected -> {
+                response.setContentType(selected.getContentType());
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.setHeader(
+                    HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"transactions." + selected.getExtension() + "\""
+                );
+                return response.getOutputStream();
+            }
+        );
+    }
+    
     /**
      * GET /api/v1/transactions/{transactionId}/history
      * Retrieves audit trail for a transaction.
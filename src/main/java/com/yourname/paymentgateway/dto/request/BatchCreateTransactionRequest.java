@@ -0,0 +1,30 @@
+package com.yourname.paymentgateway.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+@Data
+public class BatchCreateTransactionRequest {
+    
+    public static final int MAX_ITEMS = 100;
+    
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = MAX_ITEMS, message = "Batch cannot exceed " + MAX_ITEMS + " items")
+    private List<@Valid Item> items;
+    
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Item extends CreateTransactionRequest {
+        
+        @NotBlank(message = "Idempotency key is required")
+        @Size(max = 255, message = "Idempotency key too long")
+        private String idempotencyKey;
+    }
+}
+
@@ -0,0 +1,32 @@
+package com.yourname.paymentgateway.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionResponse {
+    private List<ItemResult> results;
+    
+    /**
+     * Outcome for one batch item, in request order. {@code duplicate} is set
+     * when the idempotency key was already used and the stored response is
+     * returned instead of creating a new transaction.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private String idempotencyKey;
+        private boolean duplicate;
+        private TransactionResponse transaction;
+    }
+}
+
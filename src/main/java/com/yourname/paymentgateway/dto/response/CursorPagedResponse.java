@@ -0,0 +1,33 @@
+package com.yourname.paymentgateway.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cursor variant of {@link PagedResponse}. There is no total count; pass
+ * {@code nextCursor} back to fetch the following page until it is null.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPagedResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean last;
+    
+    public static <T> CursorPagedResponse<T> of(List<T> content, int size, String nextCursor) {
+        return CursorPagedResponse.<T>builder()
+            .content(content)
+            .size(size)
+            .nextCursor(nextCursor)
+            .last(nextCursor == null)
+            .build();
+    }
+}
+
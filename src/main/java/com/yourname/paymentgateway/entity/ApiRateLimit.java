@@ -9,6 +9,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "api_rate_limits", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"merchant_id", "window_start"})
+}, indexes = {
+    @Index(name = "idx_api_rate_limits_window_start", columnList = "window_start")
 })
 @Getter
 @Setter
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 public class ApiRateLimit {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "api_rate_limits_id_seq")
+    @SequenceGenerator(name = "api_rate_limits_id_seq", sequenceName = "api_rate_limits_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "merchant_id", nullable = false)
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class IdempotencyCache {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_cache_id_seq")
+    @SequenceGenerator(name = "idempotency_cache_id_seq", sequenceName = "idempotency_cache_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "idempotency_key", unique = true, nullable = false, length = 255)
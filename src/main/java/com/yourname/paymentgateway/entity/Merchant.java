@@ -1,6 +1,7 @@
 package com.yourname.paymentgateway.entity;
 
 import com.yourname.paymentgateway.enums.MerchantStatus;
+import com.yourname.paymentgateway.security.MerchantAuthCacheListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -11,8 +12,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "merchants", indexes = {
     @Index(name = "idx_merchant_code", columnList = "merchant_code"),
-    @Index(name = "idx_merchant_status", columnList = "status")
+    @Index(name = "idx_merchant_status", columnList = "status"),
+    @Index(name = "idx_merchant_api_key_hash", columnList = "api_key_hash")
 })
+@EntityListeners(MerchantAuthCacheListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -46,6 +49,10 @@ public class Merchant {
     @Column(name = "webhook_secret", length = 255)
     private String webhookSecret;
     
+    // Requests per minute; null falls back to app.rate-limit.requests-per-minute
+    @Column(name = "rate_limit_per_minute")
+    private Integer rateLimitPerMinute;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,52 @@
+package com.yourname.paymentgateway.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payment_jobs", indexes = {
+    @Index(name = "idx_payment_jobs_available", columnList = "available_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_jobs_id_seq")
+    @SequenceGenerator(name = "payment_jobs_id_seq", sequenceName = "payment_jobs_id_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "transaction_id", unique = true, nullable = false)
+    private Long transactionId;
+    
+    // transactions.created_at, so the worker reads only that transaction's partition
+    @Column(name = "transaction_created_at", nullable = false, updatable = false)
+    private LocalDateTime transactionCreatedAt;
+    
+    @Column(name = "attempt_count", nullable = false)
+    @Builder.Default
+    private Integer attemptCount = 0;
+    
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+    
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+    
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
+
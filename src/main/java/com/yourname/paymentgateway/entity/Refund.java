@@ -22,7 +22,8 @@ import java.util.UUID;
 public class Refund {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refunds_id_seq")
+    @SequenceGenerator(name = "refunds_id_seq", sequenceName = "refunds_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "refund_id", unique = true, nullable = false, updatable = false)
@@ -32,6 +33,10 @@ public class Refund {
     @JoinColumn(name = "transaction_id", nullable = false)
     private Transaction transaction;
     
+    // transactions.created_at; see RefundService.lockTransaction
+    @Column(name = "transaction_created_at", nullable = false, updatable = false)
+    private LocalDateTime transactionCreatedAt;
+    
     @Column(name = "amount", nullable = false, precision = 19, scale = 4)
     private BigDecimal amount;
     
@@ -52,6 +57,17 @@ public class Refund {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
     
+    @Column(name = "attempt_count", nullable = false)
+    @Builder.Default
+    private Integer attemptCount = 0;
+    
+    // End of the current processing claim; see RefundService.startProcessing
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
     @PrePersist
     protected void onCreate() {
         if (refundId == null) {
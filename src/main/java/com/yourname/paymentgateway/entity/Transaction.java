@@ -2,10 +2,15 @@ package com.yourname.paymentgateway.entity;
 
 import com.yourname.paymentgateway.enums.PaymentMethod;
 import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.event.TransactionStatusChangedEvent;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.AbstractAggregateRoot;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,19 +18,20 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "transactions", indexes = {
-    @Index(name = "idx_merchant_created", columnList = "merchant_id, created_at"),
-    @Index(name = "idx_status", columnList = "status"),
-    @Index(name = "idx_transaction_id", columnList = "transaction_id")
+    @Index(name = "idx_transactions_merchant_created", columnList = "merchant_id, created_at DESC, id DESC"),
+    @Index(name = "idx_transactions_merchant_status_created", columnList = "merchant_id, status, created_at DESC, id DESC"),
+    @Index(name = "idx_transactions_merchant_transaction", columnList = "merchant_id, transaction_id, created_at", unique = true)
 })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Transaction {
+public class Transaction extends AbstractAggregateRoot<Transaction> {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_seq")
+    @SequenceGenerator(name = "transactions_id_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "transaction_id", nullable = false, unique = true, updatable = false)
@@ -41,6 +47,11 @@ public class Transaction {
     @Column(name = "amount", nullable = false, precision = 19, scale = 4)
     private BigDecimal amount;
     
+    // Sum of refunds that are pending, processing or completed; failed refunds are released
+    @Builder.Default
+    @Column(name = "refunded_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+    
     @Column(name = "currency", nullable = false, length = 3)
     private String currency = "USD";
     
@@ -61,6 +72,7 @@ public class Transaction {
     @Column(name = "customer_name")
     private String customerName;
     
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "metadata", columnDefinition = "jsonb")
     private String metadata;
     
@@ -68,6 +80,8 @@ public class Transaction {
     @Column(name = "version", nullable = false)
     private Long version = 0L;
     
+    // Partition column (V8); Hibernate adds it to the WHERE clause of updates
+    @PartitionKey
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -88,6 +102,7 @@ public class Transaction {
                 String.format("Invalid transition from %s to %s", this.status, newStatus)
             );
         }
+        TransactionStatus previousStatus = this.status;
         this.status = newStatus;
         
         if (newStatus == TransactionStatus.COMPLETED) {
@@ -95,6 +110,8 @@ public class Transaction {
         } else if (newStatus == TransactionStatus.FAILED) {
             this.failedAt = LocalDateTime.now();
         }
+        
+        registerEvent(new TransactionStatusChangedEvent(this, previousStatus, newStatus));
     }
     
     private boolean isValidTransition(TransactionStatus from, TransactionStatus to) {
@@ -102,6 +119,7 @@ public class Transaction {
             case PENDING -> to == TransactionStatus.PROCESSING || to == TransactionStatus.FAILED;
             case PROCESSING -> to == TransactionStatus.COMPLETED || to == TransactionStatus.FAILED;
             case COMPLETED -> to == TransactionStatus.REFUNDED || to == TransactionStatus.PARTIALLY_REFUNDED;
+            case PARTIALLY_REFUNDED -> to == TransactionStatus.REFUNDED;
             default -> false;
         };
     }
@@ -111,6 +129,7 @@ public class Transaction {
         if (transactionId == null) {
             transactionId = UUID.randomUUID();
         }
+        registerEvent(new TransactionStatusChangedEvent(this, null, status));
     }
 }
 
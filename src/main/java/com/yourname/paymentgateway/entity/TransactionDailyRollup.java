@@ -0,0 +1,52 @@
+package com.yourname.paymentgateway.entity;
+
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "transaction_daily_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"merchant_id", "rollup_date", "currency", "status"})
+}, indexes = {
+    @Index(name = "idx_rollup_date", columnList = "rollup_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionDailyRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private TransactionStatus status;
+    
+    @Column(name = "transaction_count", nullable = false)
+    @Builder.Default
+    private Long transactionCount = 0L;
+    
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
+
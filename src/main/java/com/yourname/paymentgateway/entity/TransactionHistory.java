@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class TransactionHistory {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_history_id_seq")
+    @SequenceGenerator(name = "transaction_history_id_seq", sequenceName = "transaction_history_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
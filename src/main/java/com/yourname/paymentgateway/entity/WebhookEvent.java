@@ -3,6 +3,8 @@ package com.yourname.paymentgateway.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -20,7 +22,8 @@ import java.util.UUID;
 public class WebhookEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_events_id_seq")
+    @SequenceGenerator(name = "webhook_events_id_seq", sequenceName = "webhook_events_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "merchant_id", nullable = false)
@@ -29,10 +32,14 @@ public class WebhookEvent {
     @Column(name = "transaction_id")
     private Long transactionId;
     
+    @Column(name = "transaction_created_at", updatable = false)
+    private LocalDateTime transactionCreatedAt;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "event_type", nullable = false, length = 50)
     private WebhookEventType eventType;
     
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "payload", nullable = false, columnDefinition = "jsonb")
     private String payload;
     
@@ -0,0 +1,15 @@
+package com.yourname.paymentgateway.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by RefundService when a refund is created. Listeners run after
+ * the creating transaction commits, so the PENDING refund row is visible.
+ */
+@Getter
+@AllArgsConstructor
+public class RefundRequestedEvent {
+    private final Long refundId;
+}
+
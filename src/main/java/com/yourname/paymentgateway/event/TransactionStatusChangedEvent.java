@@ -0,0 +1,20 @@
+package com.yourname.paymentgateway.event;
+
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Domain event registered by {@link Transaction} on creation and on every
+ * status transition. Published when the transaction is saved.
+ * A null fromStatus means the transaction was just created.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionStatusChangedEvent {
+    private final Transaction transaction;
+    private final TransactionStatus fromStatus;
+    private final TransactionStatus toStatus;
+}
+
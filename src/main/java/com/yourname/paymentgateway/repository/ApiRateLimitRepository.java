@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -20,8 +21,36 @@ public interface ApiRateLimitRepository extends JpaRepository<ApiRateLimit, Long
            "WHERE a.merchantId = :merchantId AND a.windowStart = :windowStart")
     void incrementRequestCount(@Param("merchantId") Long merchantId, @Param("windowStart") LocalDateTime windowStart);
     
+    /**
+     * Deletes at most {@code limit} windows older than the cutoff in its own
+     * transaction and returns how many were removed.
+     */
+    @Transactional
     @Modifying
-    @Query("DELETE FROM ApiRateLimit a WHERE a.windowStart < :cutoff")
-    void deleteOldWindows(@Param("cutoff") LocalDateTime cutoff);
+    @Query(value = "DELETE FROM api_rate_limits WHERE id IN (" +
+                   "SELECT id FROM api_rate_limits WHERE window_start < :cutoff " +
+                   "LIMIT :limit FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteOldWindowsBatch(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    /**
+     * Atomically adds {@code tokens} to the window's count unless the limit
+     * is already reached. Returns the new count, or null when nothing was
+     * reserved.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO api_rate_limits (merchant_id, window_start, request_count) " +
+                   "VALUES (:merchantId, :windowStart, :tokens) " +
+                   "ON CONFLICT (merchant_id, window_start) DO UPDATE " +
+                   "SET request_count = api_rate_limits.request_count + :tokens " +
+                   "WHERE api_rate_limits.request_count < :limit " +
+                   "RETURNING request_count",
+           nativeQuery = true)
+    Integer reserveTokens(
+        @Param("merchantId") Long merchantId,
+        @Param("windowStart") LocalDateTime windowStart,
+        @Param("tokens") int tokens,
+        @Param("limit") int limit
+    );
 }
 
@@ -6,16 +6,29 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface IdempotencyCacheRepository extends JpaRepository<IdempotencyCache, Long> {
     Optional<IdempotencyCache> findByMerchantIdAndIdempotencyKey(Long merchantId, String idempotencyKey);
+    List<IdempotencyCache> findByMerchantIdAndIdempotencyKeyIn(Long merchantId, Collection<String> idempotencyKeys);
     
+    /**
+     * Deletes at most {@code limit} expired rows in its own transaction and
+     * returns how many were removed. Rows locked by another sweeper are
+     * skipped rather than waited on.
+     */
+    @Transactional
     @Modifying
-    @Query("DELETE FROM IdempotencyCache c WHERE c.expiresAt < :now")
-    void deleteByExpiresAtBefore(@Param("now") LocalDateTime now);
+    @Query(value = "DELETE FROM idempotency_cache WHERE id IN (" +
+                   "SELECT id FROM idempotency_cache WHERE expires_at < :now " +
+                   "LIMIT :limit FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
 }
 
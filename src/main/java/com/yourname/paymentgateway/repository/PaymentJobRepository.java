@@ -0,0 +1,44 @@
+package com.yourname.paymentgateway.repository;
+
+import com.yourname.paymentgateway.entity.PaymentJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentJobRepository extends JpaRepository<PaymentJob, Long> {
+    
+    /**
+     * Locks up to {@code limit} due jobs that no other worker currently holds.
+     * Rows locked by a concurrent claim are skipped rather than waited on.
+     */
+    @Query(value = "SELECT * FROM payment_jobs " +
+                   "WHERE available_at <= :now " +
+                   "AND (locked_until IS NULL OR locked_until < :now) " +
+                   "ORDER BY available_at " +
+                   "LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<PaymentJob> findClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    /**
+     * available_at of the oldest due job that no worker holds, or null when
+     * the queue has caught up. Walks idx_payment_jobs_available from the
+     * oldest row.
+     */
+    @Query(value = "SELECT MIN(available_at) FROM payment_jobs " +
+                   "WHERE available_at <= :now " +
+                   "AND (locked_until IS NULL OR locked_until < :now)",
+           nativeQuery = true)
+    LocalDateTime findOldestClaimableAvailableAt(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM PaymentJob j WHERE j.id = :id AND j.lockedBy = :workerId")
+    int deleteClaimed(@Param("id") Long id, @Param("workerId") String workerId);
+}
+
@@ -1,9 +1,16 @@
 package com.yourname.paymentgateway.repository;
 
 import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.enums.RefundStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,5 +19,35 @@ import java.util.UUID;
 public interface RefundRepository extends JpaRepository<Refund, Long> {
     Optional<Refund> findByRefundId(UUID refundId);
     List<Refund> findByTransactionId(Long transactionId);
+    boolean existsByTransactionIdAndStatusInAndIdNot(Long transactionId, Collection<RefundStatus> statuses, Long id);
+    
+    /**
+     * Claims a refund for processing until {@code lockedUntil}: a PENDING one,
+     * or a PROCESSING one whose previous claim has expired. Returns 0 when it
+     * is finished or another worker holds a live claim.
+     */
+    @Modifying
+    @Query(value = "UPDATE refunds " +
+                   "SET status = 'PROCESSING', locked_until = :lockedUntil, attempt_count = attempt_count + 1 " +
+                   "WHERE id = :id " +
+                   "AND (status = 'PENDING' OR (status = 'PROCESSING' AND locked_until < :now))",
+           nativeQuery = true)
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("lockedUntil") LocalDateTime lockedUntil);
+    
+    /**
+     * PENDING refunds created before {@code createdBefore}, and PROCESSING
+     * refunds whose claim expired before {@code now}.
+     */
+    @Query("SELECT r.id FROM Refund r " +
+           "WHERE (r.status = :pending AND r.createdAt < :createdBefore) " +
+           "OR (r.status = :processing AND r.lockedUntil < :now) " +
+           "ORDER BY r.createdAt ASC")
+    List<Long> findRecoverableIds(
+        @Param("pending") RefundStatus pending,
+        @Param("createdBefore") LocalDateTime createdBefore,
+        @Param("processing") RefundStatus processing,
+        @Param("now") LocalDateTime now,
+        Pageable pageable
+    );
 }
 
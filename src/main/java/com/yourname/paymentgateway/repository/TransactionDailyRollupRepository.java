@@ -0,0 +1,97 @@
+package com.yourname.paymentgateway.repository;
+
+import com.yourname.paymentgateway.entity.TransactionDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransactionDailyRollupRepository extends JpaRepository<TransactionDailyRollup, Long> {
+    
+    List<TransactionDailyRollup> findByMerchantIdAndRollupDateBetweenOrderByRollupDateAsc(
+        Long merchantId,
+        LocalDate startDate,
+        LocalDate endDate
+    );
+    
+    /**
+     * Appends a delta for a rollup bucket. Plain inserts never contend, so
+     * concurrent payments of one merchant do not queue on the bucket row.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO transaction_rollup_deltas " +
+                   "(merchant_id, rollup_date, currency, status, count_delta, amount_delta) " +
+                   "VALUES (:merchantId, :rollupDate, :currency, :status, :countDelta, :amountDelta)",
+           nativeQuery = true)
+    void recordDelta(
+        @Param("merchantId") Long merchantId,
+        @Param("rollupDate") LocalDate rollupDate,
+        @Param("currency") String currency,
+        @Param("status") String status,
+        @Param("countDelta") long countDelta,
+        @Param("amountDelta") BigDecimal amountDelta
+    );
+    
+    /**
+     * Removes up to {@code limit} of the oldest deltas and adds their sums to
+     * the rollup buckets, creating buckets as needed. Delete and upsert are
+     * one statement, so a delta is either folded or still pending.
+     */
+    @Modifying
+    @Query(value = "WITH folded AS (" +
+                   "DELETE FROM transaction_rollup_deltas WHERE id IN (" +
+                   "SELECT id FROM transaction_rollup_deltas ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING merchant_id, rollup_date, currency, status, count_delta, amount_delta) " +
+                   "INSERT INTO transaction_daily_rollups " +
+                   "(merchant_id, rollup_date, currency, status, transaction_count, total_amount, updated_at) " +
+                   "SELECT merchant_id, rollup_date, currency, status, SUM(count_delta), SUM(amount_delta), CURRENT_TIMESTAMP " +
+                   "FROM folded GROUP BY merchant_id, rollup_date, currency, status " +
+                   "ON CONFLICT (merchant_id, rollup_date, currency, status) DO UPDATE SET " +
+                   "transaction_count = transaction_daily_rollups.transaction_count + EXCLUDED.transaction_count, " +
+                   "total_amount = transaction_daily_rollups.total_amount + EXCLUDED.total_amount, " +
+                   "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int foldDeltas(@Param("limit") int limit);
+    
+    /**
+     * Serialises folding and day rebuilds across nodes for the current transaction.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLock(@Param("key") long key);
+    
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    int lock(@Param("key") long key);
+    
+    @Modifying
+    @Query("DELETE FROM TransactionDailyRollup r WHERE r.rollupDate = :rollupDate")
+    int deleteByRollupDate(@Param("rollupDate") LocalDate rollupDate);
+    
+    /**
+     * Re-aggregates raw transactions created in [dayStart, dayEnd) into rollup
+     * rows and drops that day's pending deltas. Both run on one snapshot: the
+     * dropped deltas are exactly those already reflected in the aggregate.
+     */
+    @Modifying
+    @Query(value = "WITH cleared AS (" +
+                   "DELETE FROM transaction_rollup_deltas WHERE rollup_date = CAST(:dayStart AS DATE)) " +
+                   "INSERT INTO transaction_daily_rollups " +
+                   "(merchant_id, rollup_date, currency, status, transaction_count, total_amount, updated_at) " +
+                   "SELECT t.merchant_id, CAST(t.created_at AS DATE), t.currency, t.status, " +
+                   "COUNT(*), SUM(t.amount), CURRENT_TIMESTAMP " +
+                   "FROM transactions t " +
+                   "WHERE t.created_at >= :dayStart AND t.created_at < :dayEnd " +
+                   "GROUP BY t.merchant_id, CAST(t.created_at AS DATE), t.currency, t.status",
+           nativeQuery = true)
+    int aggregateFromTransactions(
+        @Param("dayStart") LocalDateTime dayStart,
+        @Param("dayEnd") LocalDateTime dayEnd
+    );
+}
+
@@ -0,0 +1,98 @@
+package com.yourname.paymentgateway.repository;
+
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only JDBC read of a merchant's transactions for exports. Rows are
+ * handed to the consumer one at a time and never enter the persistence
+ * context. PostgreSQL only streams with a fetch size inside a transaction,
+ * so the read runs in its own read-only transaction. The fetch size is set
+ * on the export statement only; spring.jdbc.template.fetch-size, if set,
+ * still takes precedence.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionExportRepository {
+    
+    private static final int FETCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Transactional(readOnly = true)
+    public void streamByMerchantAndFilters(
+        Long merchantId,
+        TransactionStatus status,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Consumer<TransactionResponse> consumer
+    ) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT transaction_id, amount, currency, status, payment_method, description, " +
+            "customer_email, customer_name, created_at, completed_at, failed_at " +
+            "FROM transactions WHERE merchant_id = ?"
+        );
+        List<Object> params = new ArrayList<>();
+        params.add(merchantId);
+        
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        if (startDate != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND created_at <= ?");
+            params.add(Timestamp.valueOf(endDate));
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC");
+        
+        RowCallbackHandler handler = rs -> consumer.accept(mapRow(rs));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            statement.setFetchSize(FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(params.toArray()).setValues(statement);
+            return statement;
+        }, handler);
+    }
+    
+    private TransactionResponse mapRow(ResultSet rs) throws SQLException {
+        return TransactionResponse.builder()
+            .transactionId(rs.getObject("transaction_id", UUID.class))
+            .amount(rs.getBigDecimal("amount"))
+            .currency(rs.getString("currency"))
+            .status(TransactionStatus.valueOf(rs.getString("status")))
+            .paymentMethod(PaymentMethod.valueOf(rs.getString("payment_method")))
+            .description(rs.getString("description"))
+            .customerEmail(rs.getString("customer_email"))
+            .customerName(rs.getString("customer_name"))
+            .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+            .completedAt(toLocalDateTime(rs.getTimestamp("completed_at")))
+            .failedAt(toLocalDateTime(rs.getTimestamp("failed_at")))
+            .build();
+    }
+    
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
+
@@ -0,0 +1,36 @@
+package com.yourname.paymentgateway.repository;
+
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset pages over (created_at, id) DESC, built with the Criteria API so
+ * only the filters that are set reach the SQL. Returning a List skips the
+ * count query; pass an unsorted page request of size + 1 to detect a
+ * following page.
+ */
+public interface TransactionKeysetRepository {
+    
+    List<Transaction> findKeysetFirstPage(
+        Long merchantId,
+        TransactionStatus status,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Pageable pageable
+    );
+    
+    List<Transaction> findKeysetPageAfter(
+        Long merchantId,
+        TransactionStatus status,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        LocalDateTime cursorCreatedAt,
+        Long cursorId,
+        Pageable pageable
+    );
+}
+
@@ -0,0 +1,66 @@
+package com.yourname.paymentgateway.repository;
+
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class TransactionKeysetRepositoryImpl implements TransactionKeysetRepository {
+    
+    private final EntityManager entityManager;
+    
+    TransactionKeysetRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public List<Transaction> findKeysetFirstPage(
+        Long merchantId,
+        TransactionStatus status,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Pageable pageable
+    ) {
+        return findNewestFirst(
+            TransactionSpecifications.listing(merchantId, status, startDate, endDate),
+            pageable.getPageSize()
+        );
+    }
+    
+    @Override
+    public List<Transaction> findKeysetPageAfter(
+        Long merchantId,
+        TransactionStatus status,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        LocalDateTime cursorCreatedAt,
+        Long cursorId,
+        Pageable pageable
+    ) {
+        return findNewestFirst(
+            TransactionSpecifications.listing(merchantId, status, startDate, endDate)
+                .and(TransactionSpecifications.after(cursorCreatedAt, cursorId)),
+            pageable.getPageSize()
+        );
+    }
+    
+    private List<Transaction> findNewestFirst(Specification<Transaction> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+        
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
+
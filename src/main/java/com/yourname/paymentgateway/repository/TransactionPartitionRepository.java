@@ -0,0 +1,75 @@
+package com.yourname.paymentgateway.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Partition DDL for the transactions table. Partition names come from the
+ * catalog or from create_transactions_partition(), and are checked against
+ * the monthly naming pattern before being spliced into DDL.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionPartitionRepository {
+    
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("transactions_\\d{4}_\\d{2}");
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Serialises maintenance across nodes for the current transaction.
+     */
+    public boolean tryLock(long lockKey) {
+        return Boolean.TRUE.equals(
+            jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, lockKey)
+        );
+    }
+    
+    public String createPartition(LocalDate monthOf) {
+        return jdbcTemplate.queryForObject(
+            "SELECT create_transactions_partition(?)", String.class, Date.valueOf(monthOf)
+        );
+    }
+    
+    /**
+     * Monthly partitions currently attached to transactions, oldest first.
+     * The default partition is not included.
+     */
+    public List<String> findMonthlyPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'transactions' AND c.relname ~ '^transactions_[0-9]{4}_[0-9]{2}$' " +
+            "ORDER BY c.relname",
+            String.class
+        );
+    }
+    
+    public long countDefaultPartitionRows() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions_default", Long.class);
+        return count == null ? 0 : count;
+    }
+    
+    public void detachPartition(String partitionName) {
+        jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + checked(partitionName));
+    }
+    
+    public void moveToArchive(String partitionName) {
+        jdbcTemplate.execute("ALTER TABLE " + checked(partitionName) + " SET SCHEMA archive");
+    }
+    
+    private static String checked(String partitionName) {
+        if (!MONTHLY_PARTITION.matcher(partitionName).matches()) {
+            throw new IllegalArgumentException("Not a monthly transactions partition: " + partitionName);
+        }
+        return partitionName;
+    }
+}
+
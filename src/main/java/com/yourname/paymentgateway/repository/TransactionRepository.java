@@ -1,11 +1,16 @@
 package com.yourname.paymentgateway.repository;
 
-import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
 import com.yourname.paymentgateway.entity.Transaction;
 import com.yourname.paymentgateway.enums.TransactionStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,22 +20,65 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>,
+        JpaSpecificationExecutor<Transaction>, TransactionKeysetRepository {
     Optional<Transaction> findByTransactionId(UUID transactionId);
-    Optional<Transaction> findByMerchantAndTransactionId(Merchant merchant, UUID transactionId);
+    Optional<Transaction> findByMerchantIdAndTransactionId(Long merchantId, UUID transactionId);
     Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
     
-    @Query("SELECT t FROM Transaction t WHERE t.merchant = :merchant " +
-           "AND (:status IS NULL OR t.status = :status) " +
-           "AND (:startDate IS NULL OR t.createdAt >= :startDate) " +
-           "AND (:endDate IS NULL OR t.createdAt <= :endDate) " +
-           "ORDER BY t.createdAt DESC")
-    Page<Transaction> findByMerchantAndFilters(
-        @Param("merchant") Merchant merchant,
-        @Param("status") TransactionStatus status,
-        @Param("startDate") LocalDateTime startDate,
-        @Param("endDate") LocalDateTime endDate,
-        Pageable pageable
+    /**
+     * Read path for GET /transactions/{id}: selects only the response
+     * columns straight into the DTO, so no entity is loaded into the
+     * persistence context or dirty-checked at flush.
+     */
+    @Query("SELECT new com.yourname.paymentgateway.dto.response.TransactionResponse(" +
+           "t.transactionId, t.amount, t.currency, t.status, t.paymentMethod, t.description, " +
+           "t.customerEmail, t.customerName, t.createdAt, t.completedAt, t.failedAt) " +
+           "FROM Transaction t WHERE t.merchant.id = :merchantId AND t.transactionId = :transactionId")
+    Optional<TransactionResponse> findResponseByMerchantIdAndTransactionId(
+        @Param("merchantId") Long merchantId,
+        @Param("transactionId") UUID transactionId
+    );
+    
+    /**
+     * Loads the transaction with a row lock (SELECT ... FOR UPDATE) so that
+     * concurrent refunds against it serialize on refunded_amount.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.merchant.id = :merchantId AND t.transactionId = :transactionId")
+    Optional<Transaction> findByMerchantIdAndTransactionIdForUpdate(
+        @Param("merchantId") Long merchantId,
+        @Param("transactionId") UUID transactionId
     );
+    
+    /**
+     * Loads by id together with the partition key, so only the partition
+     * holding {@code createdAt} is read. Callers take created_at from the
+     * job, refund or event row that references the transaction.
+     */
+    Optional<Transaction> findByIdAndCreatedAt(Long id, LocalDateTime createdAt);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id AND t.createdAt = :createdAt")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Offset page of a merchant's transactions, newest first. Only the
+     * filters that are set become predicates; see {@link TransactionSpecifications}.
+     */
+    default Page<Transaction> findByMerchantAndFilters(
+        Long merchantId,
+        TransactionStatus status,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Pageable pageable
+    ) {
+        Pageable newestFirst = PageRequest.of(
+            pageable.getPageNumber(),
+            pageable.getPageSize(),
+            Sort.by(Sort.Direction.DESC, "createdAt").and(pageable.getSort())
+        );
+        return findAll(TransactionSpecifications.listing(merchantId, status, startDate, endDate), newestFirst);
+    }
 }
 
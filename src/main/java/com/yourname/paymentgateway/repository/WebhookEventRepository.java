@@ -2,11 +2,13 @@ package com.yourname.paymentgateway.repository;
 
 import com.yourname.paymentgateway.entity.WebhookEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -25,5 +27,50 @@ public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long
         @Param("status") WebhookEvent.WebhookStatus status,
         @Param("now") LocalDateTime now
     );
+    
+    /**
+     * Locks up to {@code limit} due PENDING events, skipping rows another
+     * node is claiming at the same moment. At most {@code perMerchant} rows
+     * come from any one merchant, taken round-robin (every merchant's oldest
+     * event before anyone's second), so a merchant with a large backlog
+     * cannot fill the batch. The due predicates are repeated outside the
+     * subquery so that FOR UPDATE re-checks them on rows claimed concurrently.
+     */
+    @Query(value = "SELECT * FROM webhook_events " +
+                   "WHERE id IN (" +
+                   "SELECT id FROM (" +
+                   "SELECT id, next_retry_at, row_number() OVER (" +
+                   "PARTITION BY merchant_id ORDER BY next_retry_at NULLS FIRST, id) AS merchant_rank " +
+                   "FROM webhook_events " +
+                   "WHERE status = 'PENDING' " +
+                   "AND (next_retry_at IS NULL OR next_retry_at <= :now) " +
+                   "AND attempt_count < max_attempts" +
+                   ") due " +
+                   "WHERE merchant_rank <= :perMerchant " +
+                   "ORDER BY merchant_rank, next_retry_at NULLS FIRST " +
+                   "LIMIT :limit) " +
+                   "AND status = 'PENDING' " +
+                   "AND (next_retry_at IS NULL OR next_retry_at <= :now) " +
+                   "AND attempt_count < max_attempts " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<WebhookEvent> findDueForDelivery(
+        @Param("now") LocalDateTime now,
+        @Param("limit") int limit,
+        @Param("perMerchant") int perMerchant
+    );
+    
+    @Modifying
+    @Query("UPDATE WebhookEvent w SET w.status = :status, w.sentAt = :sentAt, " +
+           "w.attemptCount = w.attemptCount + 1 WHERE w.id IN :ids")
+    int markDelivered(
+        @Param("ids") Collection<Long> ids,
+        @Param("status") WebhookEvent.WebhookStatus status,
+        @Param("sentAt") LocalDateTime sentAt
+    );
+    
+    @Modifying
+    @Query("UPDATE WebhookEvent w SET w.nextRetryAt = :nextRetryAt WHERE w.id IN :ids")
+    int rescheduleAll(@Param("ids") Collection<Long> ids, @Param("nextRetryAt") LocalDateTime nextRetryAt);
 }
 
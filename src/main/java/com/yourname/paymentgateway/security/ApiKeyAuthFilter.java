@@ -1,7 +1,5 @@
 package com.yourname.paymentgateway.security;
 
-import com.yourname.paymentgateway.entity.Merchant;
-import com.yourname.paymentgateway.repository.MerchantRepository;
 import com.yourname.paymentgateway.util.HashUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,7 +18,7 @@ import java.io.IOException;
 public class ApiKeyAuthFilter extends OncePerRequestFilter {
     
     private static final String API_KEY_HEADER = "X-API-Key";
-    private final MerchantRepository merchantRepository;
+    private final MerchantAuthCache merchantAuthCache;
     
     @Override
     protected void doFilterInternal(
@@ -48,11 +46,11 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
     private void authenticateApiKey(String apiKey) {
         String apiKeyHash = HashUtil.sha256(apiKey);
         
-        Merchant merchant = merchantRepository
-            .findByApiKeyHash(apiKeyHash)
+        AuthenticatedMerchant merchant = merchantAuthCache
+            .resolve(apiKeyHash)
             .orElseThrow(() -> new BadCredentialsException("Invalid API key"));
         
-        if (!merchant.getStatus().name().equals("ACTIVE")) {
+        if (!merchant.isActive()) {
             throw new BadCredentialsException("Merchant account is not active");
         }
         
@@ -0,0 +1,34 @@
+package com.yourname.paymentgateway.security;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.enums.MerchantStatus;
+
+/**
+ * Immutable view of an authenticated merchant, as cached by
+ * {@link MerchantAuthCache} and shared by every request for the same key.
+ * Carries only what request handling reads; code that writes a row
+ * referencing the merchant loads the entity by {@link #id()}.
+ */
+public record AuthenticatedMerchant(
+    Long id,
+    String merchantCode,
+    MerchantStatus status,
+    String webhookUrl,
+    Integer rateLimitPerMinute
+) {
+    
+    public static AuthenticatedMerchant of(Merchant merchant) {
+        return new AuthenticatedMerchant(
+            merchant.getId(),
+            merchant.getMerchantCode(),
+            merchant.getStatus(),
+            merchant.getWebhookUrl(),
+            merchant.getRateLimitPerMinute()
+        );
+    }
+    
+    public boolean isActive() {
+        return status == MerchantStatus.ACTIVE;
+    }
+}
+
@@ -0,0 +1,83 @@
+package com.yourname.paymentgateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.repository.MerchantRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of authenticated merchants keyed by API key hash, plus a
+ * negative cache of hashes that matched no merchant so floods of bad keys do
+ * not reach the database. Entries are immutable {@link AuthenticatedMerchant}
+ * snapshots, never the JPA entity, since every request thread for the key
+ * shares them. Invalidation is local to this node; the TTL bounds how long
+ * other nodes may keep serving a changed merchant.
+ */
+@Component
+public class MerchantAuthCache {
+    
+    private final MerchantRepository merchantRepository;
+    private final Cache<String, AuthenticatedMerchant> merchants;
+    private final Cache<String, Boolean> unknownKeys;
+    
+    public MerchantAuthCache(
+        MerchantRepository merchantRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.auth.cache.max-size:10000}") long maxSize,
+        @Value("${app.auth.cache.ttl-seconds:60}") long ttlSeconds,
+        @Value("${app.auth.cache.negative-max-size:100000}") long negativeMaxSize,
+        @Value("${app.auth.cache.negative-ttl-seconds:30}") long negativeTtlSeconds
+    ) {
+        this.merchantRepository = merchantRepository;
+        this.merchants = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        this.unknownKeys = Caffeine.newBuilder()
+            .maximumSize(negativeMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, merchants, "merchant.auth");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownKeys, "merchant.auth.negative");
+    }
+    
+    public Optional<AuthenticatedMerchant> resolve(String apiKeyHash) {
+        if (unknownKeys.getIfPresent(apiKeyHash) != null) {
+            return Optional.empty();
+        }
+        
+        // Concurrent misses for the same hash share a single query
+        AuthenticatedMerchant merchant = merchants.get(
+            apiKeyHash,
+            hash -> merchantRepository.findByApiKeyHash(hash).map(AuthenticatedMerchant::of).orElse(null)
+        );
+        if (merchant == null) {
+            unknownKeys.put(apiKeyHash, Boolean.TRUE);
+        }
+        return Optional.ofNullable(merchant);
+    }
+    
+    /**
+     * Drops every cached entry for the merchant, including those under an
+     * API key hash that has since been rotated.
+     */
+    public void invalidate(Merchant merchant) {
+        merchants.asMap().values().removeIf(cached -> cached.id().equals(merchant.getId()));
+        unknownKeys.invalidate(merchant.getApiKeyHash());
+    }
+    
+    public void invalidateAll() {
+        merchants.invalidateAll();
+        unknownKeys.invalidateAll();
+    }
+}
+
@@ -0,0 +1,43 @@
+package com.yourname.paymentgateway.security;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts a merchant from {@link MerchantAuthCache} whenever its row changes
+ * through JPA (status, API key, removal, or a new merchant whose key was
+ * negatively cached). Eviction runs after commit so a concurrent request
+ * cannot re-cache the old row. Bulk JPQL/SQL updates bypass this listener
+ * and must call {@link MerchantAuthCache#invalidate} themselves.
+ */
+public class MerchantAuthCacheListener {
+    
+    @Autowired(required = false)
+    private MerchantAuthCache merchantAuthCache;
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onMerchantChanged(Merchant merchant) {
+        if (merchantAuthCache == null) {
+            return;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merchantAuthCache.invalidate(merchant);
+                }
+            });
+        } else {
+            merchantAuthCache.invalidate(merchant);
+        }
+    }
+}
+
@@ -1,6 +1,5 @@
 package com.yourname.paymentgateway.security;
 
-import com.yourname.paymentgateway.entity.Merchant;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -12,9 +11,9 @@ import java.util.Collections;
 @Getter
 public class MerchantDetails implements UserDetails {
     
-    private final Merchant merchant;
+    private final AuthenticatedMerchant merchant;
     
-    public MerchantDetails(Merchant merchant) {
+    public MerchantDetails(AuthenticatedMerchant merchant) {
         this.merchant = merchant;
     }
     
@@ -30,7 +29,7 @@ public class MerchantDetails implements UserDetails {
     
     @Override
     public String getUsername() {
-        return merchant.getMerchantCode();
+        return merchant.merchantCode();
     }
     
     @Override
@@ -40,7 +39,7 @@ public class MerchantDetails implements UserDetails {
     
     @Override
     public boolean isAccountNonLocked() {
-        return merchant.getStatus().name().equals("ACTIVE");
+        return merchant.isActive();
     }
     
     @Override
@@ -50,7 +49,7 @@ public class MerchantDetails implements UserDetails {
     
     @Override
     public boolean isEnabled() {
-        return merchant.getStatus().name().equals("ACTIVE");
+        return merchant.isActive();
     }
 }
 
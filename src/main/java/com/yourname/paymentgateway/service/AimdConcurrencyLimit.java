@@ -0,0 +1,45 @@
+package com.yourname.paymentgateway.service;
+
+/**
+ * Additive-increase/multiplicative-decrease concurrency limit driven by
+ * observed call latency. Every fast, successful call grows the limit by
+ * 1/limit, i.e. by one per window of {@code limit} completions. A call that
+ * fails or exceeds the latency threshold cuts the limit by the backoff ratio,
+ * at most once per window, so a burst of timeouts from calls that were
+ * already in flight does not collapse it to the minimum.
+ */
+public class AimdConcurrencyLimit {
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private double limit;
+    private int samplesSinceDecrease;
+    
+    public AimdConcurrencyLimit(int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = maxLimit;
+        this.samplesSinceDecrease = maxLimit;
+    }
+    
+    public synchronized void onSample(long latencyNanos, boolean failed) {
+        samplesSinceDecrease++;
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            if (samplesSinceDecrease >= getLimit()) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                samplesSinceDecrease = 0;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+    
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+}
+
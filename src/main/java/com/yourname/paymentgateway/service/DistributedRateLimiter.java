@@ -0,0 +1,141 @@
+package com.yourname.paymentgateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yourname.paymentgateway.entity.ApiRateLimit;
+import com.yourname.paymentgateway.repository.ApiRateLimitRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Cluster-wide fixed-window limiter on the api_rate_limits table. Rather than
+ * counting every request in the database, a node leases a chunk of tokens for
+ * the current minute with a single upsert and serves requests from the lease
+ * until it runs out. A merchant's limit is therefore shared by all nodes; at
+ * most one lease per node and window goes unused.
+ */
+@Slf4j
+public class DistributedRateLimiter implements RateLimiter {
+    
+    private final ApiRateLimitRepository rateLimitRepository;
+    private final Cache<Long, Lease> leases;
+    private final int leaseSize;
+    
+    public DistributedRateLimiter(
+        ApiRateLimitRepository rateLimitRepository,
+        MeterRegistry meterRegistry,
+        int leaseSize,
+        long maxBuckets,
+        Duration idleTimeout
+    ) {
+        this.rateLimitRepository = rateLimitRepository;
+        this.leaseSize = leaseSize;
+        this.leases = Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfterAccess(idleTimeout)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, leases, "rate_limit.leases");
+    }
+    
+    @Override
+    public boolean tryConsume(long merchantId, int requestsPerMinute, int tokens) {
+        if (tokens > requestsPerMinute) {
+            return false;
+        }
+        Lease lease = leases.get(merchantId, id -> new Lease());
+        LocalDateTime window = currentWindow();
+        
+        synchronized (lease) {
+            lease.rollTo(window);
+            if (lease.remaining >= tokens) {
+                lease.remaining -= tokens;
+                return true;
+            }
+            if (lease.exhausted) {
+                return false;
+            }
+            
+            // Lease at least the shortfall, so a large batch is served by one upsert
+            int chunk = Math.min(Math.max(leaseSize, tokens - lease.remaining), requestsPerMinute);
+            int granted = reserve(merchantId, window, chunk, requestsPerMinute);
+            // A short grant means the window is full; counts only grow within
+            // a window, so skip the DB until it rolls over
+            lease.exhausted = granted < chunk;
+            lease.remaining += granted;
+            if (lease.remaining < tokens) {
+                return false;
+            }
+            lease.remaining -= tokens;
+            return true;
+        }
+    }
+    
+    /**
+     * What the merchant can still spend this minute as seen from this node:
+     * the tokens no node has leased yet, read from api_rate_limits, plus this
+     * node's unused lease. Other nodes' unused leases are not visible here.
+     * Only called on the rejection path, so the read is not on the hot path.
+     */
+    @Override
+    public long getAvailableTokens(long merchantId, int requestsPerMinute) {
+        LocalDateTime window = currentWindow();
+        long localRemaining = 0;
+        Lease lease = leases.getIfPresent(merchantId);
+        if (lease != null) {
+            synchronized (lease) {
+                lease.rollTo(window);
+                localRemaining = lease.remaining;
+            }
+        }
+        try {
+            int used = rateLimitRepository.findByMerchantIdAndWindowStart(merchantId, window)
+                .map(ApiRateLimit::getRequestCount)
+                .orElse(0);
+            return Math.max(0, requestsPerMinute - used) + localRemaining;
+        } catch (RuntimeException e) {
+            log.warn("Rate limit store unavailable, reporting local lease for merchant {}", merchantId, e);
+            return localRemaining;
+        }
+    }
+    
+    private int reserve(long merchantId, LocalDateTime window, int chunk, int requestsPerMinute) {
+        try {
+            Integer total = rateLimitRepository.reserveTokens(merchantId, window, chunk, requestsPerMinute);
+            if (total == null) {
+                return 0;
+            }
+            // Another node may have taken part of the last chunk
+            int alreadyUsed = total - chunk;
+            return Math.max(0, Math.min(chunk, requestsPerMinute - alreadyUsed));
+        } catch (RuntimeException e) {
+            // Fail open: an unavailable limiter store must not take the API down
+            log.warn("Rate limit store unavailable, allowing requests for merchant {}", merchantId, e);
+            return chunk;
+        }
+    }
+    
+    private LocalDateTime currentWindow() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+    
+    private static final class Lease {
+        private LocalDateTime window;
+        private int remaining;
+        private boolean exhausted;
+        
+        void rollTo(LocalDateTime current) {
+            if (!current.equals(window)) {
+                window = current;
+                remaining = 0;
+                exhausted = false;
+            }
+        }
+    }
+}
+
@@ -0,0 +1,88 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.repository.ApiRateLimitRepository;
+import com.yourname.paymentgateway.repository.IdempotencyCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Deletes expired idempotency_cache rows and stale api_rate_limits windows.
+ * Each chunk is a separate short transaction of at most chunk-size rows, with
+ * a pause between chunks, so a backlog is worked off without long row locks
+ * or large WAL bursts. A run stops after max-chunks-per-run per table and the
+ * next run continues where it left off. A full run can take tens of seconds;
+ * spring.task.scheduling.pool.size gives every scheduled method its own
+ * thread, so the pauses never hold up the queue pollers.
+ */
+@Component
+@Slf4j
+public class ExpirySweeper {
+    
+    private final IdempotencyCacheRepository cacheRepository;
+    private final ApiRateLimitRepository rateLimitRepository;
+    private final PaymentMetrics paymentMetrics;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final int maxChunksPerRun;
+    private final long rateLimitRetentionMinutes;
+    
+    public ExpirySweeper(
+        IdempotencyCacheRepository cacheRepository,
+        ApiRateLimitRepository rateLimitRepository,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.expiry-sweeper.chunk-size:10000}") int chunkSize,
+        @Value("${app.expiry-sweeper.pause-ms:200}") long pauseMs,
+        @Value("${app.expiry-sweeper.max-chunks-per-run:50}") int maxChunksPerRun,
+        @Value("${app.expiry-sweeper.rate-limit-retention-minutes:5}") long rateLimitRetentionMinutes
+    ) {
+        this.cacheRepository = cacheRepository;
+        this.rateLimitRepository = rateLimitRepository;
+        this.paymentMetrics = paymentMetrics;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.rateLimitRetentionMinutes = rateLimitRetentionMinutes;
+    }
+    
+    @Scheduled(
+        initialDelayString = "${app.expiry-sweeper.interval-ms:60000}",
+        fixedDelayString = "${app.expiry-sweeper.interval-ms:60000}"
+    )
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        sweepTable("idempotency_cache", limit -> cacheRepository.deleteExpiredBatch(now, limit));
+        
+        LocalDateTime windowCutoff = now.minusMinutes(rateLimitRetentionMinutes);
+        sweepTable("api_rate_limits", limit -> rateLimitRepository.deleteOldWindowsBatch(windowCutoff, limit));
+    }
+    
+    int sweepTable(String table, IntUnaryOperator deleteChunk) {
+        int total = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                int deleted = deleteChunk.applyAsInt(chunkSize);
+                paymentMetrics.recordExpiredRowsSwept(table, deleted);
+                total += deleted;
+                if (deleted < chunkSize) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Expiry sweep of {} stopped after {} rows", table, total, e);
+        }
+        
+        if (total > 0) {
+            log.debug("Swept {} expired rows from {}", total, table);
+        }
+        return total;
+    }
+}
+
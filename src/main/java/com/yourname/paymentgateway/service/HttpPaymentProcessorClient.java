@@ -0,0 +1,123 @@
+package com.yourname.paymentgateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Payment processor client over HTTP. The shared HttpClient keeps a pool of
+ * keep-alive connections and every request carries its own timeout. Each
+ * call sends the transaction or refund UUID as Idempotency-Key, so a retried
+ * call cannot charge twice. Circuit breaking and the concurrency cap live in
+ * ResilientPaymentProcessorClient, which wraps this client.
+ */
+@Slf4j
+public class HttpPaymentProcessorClient implements PaymentProcessorClient {
+    
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final String apiKey;
+    private final Duration requestTimeout;
+    
+    public HttpPaymentProcessorClient(
+        HttpClient httpClient,
+        ObjectMapper objectMapper,
+        String baseUrl,
+        String apiKey,
+        Duration requestTimeout
+    ) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUri = URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        this.apiKey = apiKey;
+        this.requestTimeout = requestTimeout;
+    }
+    
+    @Override
+    public CompletableFuture<PaymentResult> charge(Transaction transaction) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("reference", transaction.getTransactionId());
+        body.put("amount", transaction.getAmount());
+        body.put("currency", transaction.getCurrency());
+        body.put("paymentMethod", transaction.getPaymentMethod());
+        return post("charges", transaction.getTransactionId().toString(), body);
+    }
+    
+    @Override
+    public CompletableFuture<PaymentResult> refund(Refund refund) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("reference", refund.getRefundId());
+        body.put("amount", refund.getAmount());
+        return post("refunds", refund.getRefundId().toString(), body);
+    }
+    
+    private CompletableFuture<PaymentResult> post(String path, String idempotencyKey, Map<String, Object> body) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new PaymentProcessorException("Could not encode processor request", e));
+        }
+        
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                if (error != null) {
+                    throw new PaymentProcessorException("Payment processor call failed: " + error.getMessage(), error);
+                }
+                
+                int status = response.statusCode();
+                if (status >= 500 || status == 408 || status == 429) {
+                    throw new PaymentProcessorException("Payment processor returned HTTP " + status);
+                }
+                
+                return toResult(status, response.body());
+            });
+    }
+    
+    /**
+     * 2xx bodies carry the processor's verdict; any other 4xx is a definite
+     * rejection of this request and is not retried.
+     */
+    private PaymentResult toResult(int status, String body) {
+        ProcessorResponse response;
+        try {
+            response = objectMapper.readValue(body, ProcessorResponse.class);
+        } catch (JsonProcessingException e) {
+            if (status >= 200 && status < 300) {
+                throw new PaymentProcessorException("Unreadable payment processor response", e);
+            }
+            return new PaymentResult(false, "HTTP_" + status, "Payment processor rejected the request", null);
+        }
+        
+        boolean approved = status >= 200 && status < 300 && response.approved();
+        return new PaymentResult(approved, response.code(), response.message(), response.processorTransactionId());
+    }
+    
+    private record ProcessorResponse(
+        boolean approved,
+        String code,
+        String message,
+        String processorTransactionId
+    ) {
+    }
+}
+
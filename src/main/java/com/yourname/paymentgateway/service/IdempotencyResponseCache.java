@@ -0,0 +1,66 @@
+package com.yourname.paymentgateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * In-process L1 cache in front of the idempotency_cache table.
+ * Holds already-deserialized responses keyed by (merchantId, idempotencyKey).
+ * The table remains the source of truth; entries here never outlive the
+ * row's expires_at. Hit/miss/eviction stats are published as "idempotency.l1".
+ */
+@Component
+public class IdempotencyResponseCache {
+    
+    private final Cache<CacheKey, CachedResponse> cache;
+    
+    public IdempotencyResponseCache(
+        @Value("${app.idempotency.l1.max-size:100000}") long maxSize,
+        @Value("${app.idempotency.l1.ttl-seconds:600}") long ttlSeconds,
+        MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency.l1");
+    }
+    
+    public TransactionResponse get(Long merchantId, String idempotencyKey) {
+        CacheKey key = new CacheKey(merchantId, idempotencyKey);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        if (!cached.expiresAt().isAfter(LocalDateTime.now())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return cached.response();
+    }
+    
+    public void put(
+        Long merchantId,
+        String idempotencyKey,
+        TransactionResponse response,
+        LocalDateTime expiresAt
+    ) {
+        cache.put(new CacheKey(merchantId, idempotencyKey), new CachedResponse(response, expiresAt));
+    }
+    
+    private record CacheKey(Long merchantId, String idempotencyKey) {
+    }
+    
+    private record CachedResponse(TransactionResponse response, LocalDateTime expiresAt) {
+    }
+}
+
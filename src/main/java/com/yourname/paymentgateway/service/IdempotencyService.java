@@ -1,5 +1,6 @@
 package com.yourname.paymentgateway.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yourname.paymentgateway.dto.response.TransactionResponse;
 import com.yourname.paymentgateway.entity.IdempotencyCache;
@@ -9,8 +10,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -18,26 +26,63 @@ public class IdempotencyService {
     
     private final IdempotencyCacheRepository cacheRepository;
     private final ObjectMapper objectMapper;
+    private final IdempotencyResponseCache responseCache;
+    private final PaymentMetrics paymentMetrics;
     
     private static final int CACHE_TTL_HOURS = 24;
     
     @Transactional(readOnly = true)
     @SneakyThrows
     public TransactionResponse getCachedResponse(Long merchantId, String idempotencyKey) {
-        return cacheRepository
+        // Answer client retries from memory when possible
+        TransactionResponse local = responseCache.get(merchantId, idempotencyKey);
+        if (local != null) {
+            paymentMetrics.recordIdempotencyLookups(1, 0);
+            return local;
+        }
+        
+        TransactionResponse stored = cacheRepository
             .findByMerchantIdAndIdempotencyKey(merchantId, idempotencyKey)
             .filter(cache -> cache.getExpiresAt().isAfter(LocalDateTime.now()))
-            .map(cache -> {
-                try {
-                    return objectMapper.readValue(
-                        cache.getResponseBody(), 
-                        TransactionResponse.class
-                    );
-                } catch (Exception e) {
-                    return null;
-                }
-            })
+            .map(cache -> readResponse(merchantId, cache))
             .orElse(null);
+        paymentMetrics.recordIdempotencyLookups(stored != null ? 1 : 0, stored != null ? 0 : 1);
+        return stored;
+    }
+    
+    /**
+     * Multi-key variant for batch requests: one query for every key that
+     * misses the in-memory cache. Keys without a stored response are absent
+     * from the result.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, TransactionResponse> getCachedResponses(Long merchantId, Collection<String> idempotencyKeys) {
+        Map<String, TransactionResponse> responses = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String idempotencyKey : idempotencyKeys) {
+            TransactionResponse local = responseCache.get(merchantId, idempotencyKey);
+            if (local != null) {
+                responses.put(idempotencyKey, local);
+            } else {
+                misses.add(idempotencyKey);
+            }
+        }
+        if (misses.isEmpty()) {
+            paymentMetrics.recordIdempotencyLookups(responses.size(), 0);
+            return responses;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (IdempotencyCache cache : cacheRepository.findByMerchantIdAndIdempotencyKeyIn(merchantId, misses)) {
+            if (cache.getExpiresAt().isAfter(now)) {
+                TransactionResponse response = readResponse(merchantId, cache);
+                if (response != null) {
+                    responses.put(cache.getIdempotencyKey(), response);
+                }
+            }
+        }
+        paymentMetrics.recordIdempotencyLookups(responses.size(), idempotencyKeys.size() - responses.size());
+        return responses;
     }
     
     @Transactional
@@ -47,10 +92,42 @@ public class IdempotencyService {
         String idempotencyKey,
         TransactionResponse response
     ) {
+        IdempotencyCache cache = buildCacheRow(merchantId, idempotencyKey, response);
+        
+        cacheRepository.save(cache);
+        
+        // Only expose the response in memory once the row is committed
+        afterCommit(() -> responseCache.put(merchantId, idempotencyKey, response, cache.getExpiresAt()));
+    }
+    
+    /**
+     * Stores responses for several keys; the rows go through one saveAll so
+     * Hibernate can batch the inserts.
+     */
+    @Transactional
+    @SneakyThrows
+    public void cacheResponses(Long merchantId, Map<String, TransactionResponse> responses) {
+        List<IdempotencyCache> rows = new ArrayList<>(responses.size());
+        for (Map.Entry<String, TransactionResponse> entry : responses.entrySet()) {
+            rows.add(buildCacheRow(merchantId, entry.getKey(), entry.getValue()));
+        }
+        
+        cacheRepository.saveAll(rows);
+        
+        afterCommit(() -> rows.forEach(cache -> responseCache.put(
+            merchantId, cache.getIdempotencyKey(), responses.get(cache.getIdempotencyKey()), cache.getExpiresAt()
+        )));
+    }
+    
+    private IdempotencyCache buildCacheRow(
+        Long merchantId,
+        String idempotencyKey,
+        TransactionResponse response
+    ) throws JsonProcessingException {
         String responseBody = objectMapper.writeValueAsString(response);
         String requestHash = HashUtil.sha256(responseBody);
         
-        IdempotencyCache cache = IdempotencyCache.builder()
+        return IdempotencyCache.builder()
             .merchantId(merchantId)
             .idempotencyKey(idempotencyKey)
             .requestHash(requestHash)
@@ -58,13 +135,32 @@ public class IdempotencyService {
             .responseStatusCode(201)
             .expiresAt(LocalDateTime.now().plusHours(CACHE_TTL_HOURS))
             .build();
-        
-        cacheRepository.save(cache);
     }
     
-    @Transactional
-    public void cleanupExpiredCache() {
-        cacheRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private TransactionResponse readResponse(Long merchantId, IdempotencyCache cache) {
+        try {
+            TransactionResponse response = objectMapper.readValue(
+                cache.getResponseBody(), 
+                TransactionResponse.class
+            );
+            responseCache.put(merchantId, cache.getIdempotencyKey(), response, cache.getExpiresAt());
+            return response;
+        } catch (Exception e) {
+            return null;
+        }
     }
 }
 
@@ -0,0 +1,58 @@
+package com.yourname.paymentgateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * In-memory Bucket4j buckets. Limits hold per node only, so a merchant gets
+ * the limit once per instance. Idle buckets are evicted.
+ */
+public class LocalRateLimiter implements RateLimiter {
+    
+    private final Cache<BucketKey, Bucket> buckets;
+    
+    public LocalRateLimiter(MeterRegistry meterRegistry, long maxBuckets, Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfterAccess(idleTimeout)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate_limit.buckets");
+    }
+    
+    @Override
+    public boolean tryConsume(long merchantId, int requestsPerMinute, int tokens) {
+        return resolveBucket(merchantId, requestsPerMinute).tryConsume(tokens);
+    }
+    
+    @Override
+    public long getAvailableTokens(long merchantId, int requestsPerMinute) {
+        return resolveBucket(merchantId, requestsPerMinute).getAvailableTokens();
+    }
+    
+    // Keyed by limit too, so a changed merchant limit starts a fresh bucket
+    private Bucket resolveBucket(long merchantId, int requestsPerMinute) {
+        return buckets.get(new BucketKey(merchantId, requestsPerMinute), this::createNewBucket);
+    }
+    
+    private Bucket createNewBucket(BucketKey key) {
+        Bandwidth limit = Bandwidth.classic(
+            key.requestsPerMinute(),
+            Refill.intervally(key.requestsPerMinute(), Duration.ofMinutes(1))
+        );
+        return Bucket.builder()
+            .addLimit(limit)
+            .build();
+    }
+    
+    private record BucketKey(long merchantId, int requestsPerMinute) {
+    }
+}
+
@@ -0,0 +1,53 @@
+package com.yourname.paymentgateway.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Samples how far the payment queue is behind: the age of the oldest job
+ * that is due and not claimed by any worker. That is the real backlog across
+ * all nodes, unlike in-memory executor queues, which the workers never let
+ * grow past their in-flight limit. New payments are refused while it exceeds
+ * app.payment-queue.backpressure.max-lag-seconds.
+ */
+@Component
+@Slf4j
+public class PaymentBacklogMonitor {
+    
+    private final PaymentQueueService queueService;
+    private final Duration maxLag;
+    private volatile Duration lag = Duration.ZERO;
+    
+    public PaymentBacklogMonitor(
+        PaymentQueueService queueService,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.payment-queue.backpressure.max-lag-seconds:30}") long maxLagSeconds
+    ) {
+        this.queueService = queueService;
+        this.maxLag = Duration.ofSeconds(maxLagSeconds);
+        paymentMetrics.gauge("payment.queue.lag.seconds", () -> lag.toMillis() / 1000.0);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.payment-queue.backpressure.sample-interval-ms:1000}")
+    public void sample() {
+        try {
+            lag = queueService.oldestDueJobAge();
+        } catch (RuntimeException e) {
+            // Keep the last sample; admission should not flap on one failed query
+            log.warn("Could not sample payment queue backlog", e);
+        }
+    }
+    
+    public boolean isBacklogged() {
+        return lag.compareTo(maxLag) > 0;
+    }
+    
+    public Duration getLag() {
+        return lag;
+    }
+}
+
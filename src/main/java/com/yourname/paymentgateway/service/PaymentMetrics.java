@@ -0,0 +1,144 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Domain meters for the payment lifecycle. Every timer publishes a
+ * percentile histogram, so p99 can be aggregated across nodes in
+ * Prometheus/CloudWatch instead of being averaged per node.
+ */
+@Component
+public class PaymentMetrics {
+    
+    private final MeterRegistry registry;
+    
+    public PaymentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    public Timer.Sample startTimer() {
+        return Timer.start(registry);
+    }
+    
+    /**
+     * End-to-end createTransaction time, tagged created or duplicate.
+     */
+    public void recordTransactionCreate(Timer.Sample sample, boolean duplicate) {
+        sample.stop(timer("payment.transaction.create", "result", duplicate ? "duplicate" : "created"));
+    }
+    
+    public void recordIdempotencyLookups(int hits, int misses) {
+        if (hits > 0) {
+            counter("payment.idempotency.lookups", "result", "hit").increment(hits);
+        }
+        if (misses > 0) {
+            counter("payment.idempotency.lookups", "result", "miss").increment(misses);
+        }
+    }
+    
+    /**
+     * Times a processor call from dispatch until its future completes,
+     * tagged approved, declined or error.
+     */
+    public CompletableFuture<PaymentProcessorClient.PaymentResult> timeProcessorCall(
+        String operation,
+        Supplier<CompletableFuture<PaymentProcessorClient.PaymentResult>> call
+    ) {
+        Timer.Sample sample = Timer.start(registry);
+        CompletableFuture<PaymentProcessorClient.PaymentResult> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        
+        return future.whenComplete((result, error) -> {
+            String outcome = error != null ? "error" : result.isSuccessful() ? "approved" : "declined";
+            sample.stop(timer("payment.processor.latency", "operation", operation, "outcome", outcome));
+        });
+    }
+    
+    /**
+     * Time a payment spent PENDING before a worker moved it to PROCESSING.
+     */
+    public void recordQueueWait(Duration wait) {
+        timer("payment.queue.wait").record(wait);
+    }
+    
+    public void recordWebhookDelivery(long elapsedNanos, String outcome) {
+        timer("webhook.delivery.latency", "outcome", outcome).record(Duration.ofNanos(elapsedNanos));
+        counter("webhook.delivery.attempts", "outcome", outcome).increment();
+    }
+    
+    /**
+     * Counts events dropped without an HTTP attempt, e.g. no webhook URL.
+     */
+    public void recordWebhookSkipped() {
+        counter("webhook.delivery.attempts", "outcome", "skipped").increment();
+    }
+    
+    /**
+     * Refund time from claim until the outcome is committed.
+     */
+    public void recordRefund(Timer.Sample sample, boolean completed) {
+        sample.stop(timer("refund.processing", "outcome", completed ? "completed" : "failed"));
+    }
+    
+    public void recordCircuitTransition(String breaker, String from, String to) {
+        counter("payment.processor.circuit.transitions", "breaker", breaker, "from", from, "to", to).increment();
+    }
+    
+    public void recordRateLimitRejection(AuthenticatedMerchant merchant) {
+        String merchantTag = merchant.merchantCode() != null
+            ? merchant.merchantCode()
+            : String.valueOf(merchant.id());
+        counter("rate.limit.rejections", "merchant", merchantTag).increment();
+    }
+    
+    public void recordExecutorRejection(String executor) {
+        counter("executor.rejected", "name", executor).increment();
+    }
+    
+    /**
+     * Rejections by BackpressureInterceptor, tagged by workload.
+     */
+    public void recordBackpressureRejection(String workload) {
+        counter("http.backpressure.rejections", "workload", workload).increment();
+    }
+    
+    public void gauge(String name, Supplier<Number> value) {
+        Gauge.builder(name, value).register(registry);
+    }
+    
+    /**
+     * Rows removed by the expiry sweeper, tagged by table.
+     */
+    public void recordExpiredRowsSwept(String table, int rows) {
+        if (rows > 0) {
+            counter("expiry.sweeper.rows.removed", "table", table).increment(rows);
+        }
+    }
+    
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+    
+    private Counter counter(String name, String... tags) {
+        return Counter.builder(name)
+            .tags(tags)
+            .register(registry);
+    }
+}
+
@@ -0,0 +1,36 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.entity.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for the external payment processor. Calls return
+ * immediately; futures complete on the processor callback pool, never on
+ * a Hikari-bound request or worker thread, so dependents may run a short
+ * DB transaction. A decline is a normal result; timeouts, transport errors
+ * and an open circuit complete the future with a PaymentProcessorException.
+ */
+public interface PaymentProcessorClient {
+    
+    CompletableFuture<PaymentResult> charge(Transaction transaction);
+    
+    CompletableFuture<PaymentResult> refund(Refund refund);
+    
+    @Data
+    @AllArgsConstructor
+    class PaymentResult {
+        private boolean successful;
+        private String statusCode;
+        private String message;
+        private String processorTransactionId;
+        
+        public String getErrorMessage() {
+            return successful ? null : message;
+        }
+    }
+}
+
@@ -0,0 +1,120 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.PaymentJob;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.repository.PaymentJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Durable payment processing queue backed by the payment_jobs table.
+ * Jobs are enqueued in the same DB transaction that creates the payment,
+ * so a crash or full executor can no longer lose PENDING transactions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentQueueService {
+    
+    private final PaymentJobRepository jobRepository;
+    
+    @Value("${app.payment-queue.visibility-timeout-seconds:120}")
+    private long visibilityTimeoutSeconds;
+    
+    @Value("${app.payment-queue.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${app.payment-queue.retry-delay-seconds:10}")
+    private long retryDelaySeconds;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Transaction transaction) {
+        jobRepository.save(newJob(transaction, LocalDateTime.now()));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<Transaction> transactions) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentJob> jobs = transactions.stream()
+            .map(transaction -> newJob(transaction, now))
+            .collect(Collectors.toList());
+        
+        jobRepository.saveAll(jobs);
+    }
+    
+    private static PaymentJob newJob(Transaction transaction, LocalDateTime availableAt) {
+        return PaymentJob.builder()
+            .transactionId(transaction.getId())
+            .transactionCreatedAt(transaction.getCreatedAt())
+            .availableAt(availableAt)
+            .build();
+    }
+    
+    /**
+     * Claims up to {@code limit} due jobs for the given worker. The row locks
+     * only last for this short transaction; afterwards locked_until keeps the
+     * jobs invisible to other workers until the visibility timeout expires.
+     */
+    @Transactional
+    public List<PaymentJob> claimBatch(String workerId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentJob> jobs = jobRepository.findClaimable(now, limit);
+        
+        for (PaymentJob job : jobs) {
+            job.setLockedBy(workerId);
+            job.setLockedUntil(now.plusSeconds(visibilityTimeoutSeconds));
+            job.setAttemptCount(job.getAttemptCount() + 1);
+        }
+        
+        return jobRepository.saveAll(jobs);
+    }
+    
+    @Transactional
+    public void complete(PaymentJob job) {
+        int deleted = jobRepository.deleteClaimed(job.getId(), job.getLockedBy());
+        if (deleted == 0) {
+            log.warn("Payment job {} was reclaimed by another worker before completion", job.getId());
+        }
+    }
+    
+    /**
+     * Releases the claim and makes the job visible again after a linear backoff.
+     */
+    @Transactional
+    public void retryLater(PaymentJob job, String error) {
+        jobRepository.findById(job.getId())
+            .filter(current -> job.getLockedBy().equals(current.getLockedBy()))
+            .ifPresent(current -> {
+                current.setLockedBy(null);
+                current.setLockedUntil(null);
+                current.setLastError(error);
+                current.setAvailableAt(LocalDateTime.now().plusSeconds(retryDelaySeconds * current.getAttemptCount()));
+                jobRepository.save(current);
+            });
+    }
+    
+    /**
+     * How long the oldest due, unclaimed job has been waiting; zero when
+     * workers are keeping up.
+     */
+    @Transactional(readOnly = true)
+    public Duration oldestDueJobAge() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldest = jobRepository.findOldestClaimableAvailableAt(now);
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, now);
+    }
+    
+    public boolean isExhausted(PaymentJob job) {
+        return job.getAttemptCount() >= maxAttempts;
+    }
+}
+
@@ -0,0 +1,140 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.PaymentJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls the payment queue and runs claimed jobs on the worker pool. A slot is
+ * held from claim until the processor answers, so a node never has more
+ * payments in flight than the current limit, while worker threads are free
+ * during the processor call itself. The limit is therefore sized for the
+ * processor (app.payment-queue.max-in-flight), not for the worker threads or
+ * the connection pool, which only see the short claim and outcome
+ * transactions. With app.payment-queue.adaptive.enabled the limit moves
+ * between min-concurrency and max-in-flight (AIMD on processor latency and
+ * errors); otherwise it stays at the maximum. Adding instances scales
+ * throughput without any job being processed twice.
+ */
+@Component
+@Slf4j
+public class PaymentQueueWorker {
+    
+    private final PaymentQueueService queueService;
+    private final TransactionService transactionService;
+    private final Executor executor;
+    private final AimdConcurrencyLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final boolean adaptive;
+    private final int batchSize;
+    private final String workerId = "worker-" + UUID.randomUUID();
+    
+    public PaymentQueueWorker(
+        PaymentQueueService queueService,
+        TransactionService transactionService,
+        @Qualifier("paymentQueueExecutor") Executor executor,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.payment-queue.max-in-flight:200}") int maxInFlight,
+        @Value("${app.payment-queue.batch-size:10}") int batchSize,
+        @Value("${app.payment-queue.adaptive.enabled:true}") boolean adaptive,
+        @Value("${app.payment-queue.adaptive.min-concurrency:1}") int minConcurrency,
+        @Value("${app.payment-queue.adaptive.latency-threshold-ms:5000}") long latencyThresholdMs,
+        @Value("${app.payment-queue.adaptive.backoff-ratio:0.75}") double backoffRatio
+    ) {
+        this.queueService = queueService;
+        this.transactionService = transactionService;
+        this.executor = executor;
+        this.limit = new AimdConcurrencyLimit(
+            Math.min(minConcurrency, maxInFlight),
+            maxInFlight,
+            TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs),
+            backoffRatio
+        );
+        this.adaptive = adaptive;
+        this.batchSize = batchSize;
+        paymentMetrics.gauge("payment.queue.concurrency.limit", limit::getLimit);
+        paymentMetrics.gauge("payment.queue.in-flight", inFlight::get);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.payment-queue.poll-interval-ms:500}")
+    public void poll() {
+        // Keep claiming while the queue has due jobs and the limit has room
+        int capacity = Math.min(batchSize, limit.getLimit() - inFlight.get());
+        while (capacity > 0) {
+            List<PaymentJob> jobs = queueService.claimBatch(workerId, capacity);
+            if (!dispatch(jobs) || jobs.size() < capacity) {
+                return;
+            }
+            capacity = Math.min(batchSize, limit.getLimit() - inFlight.get());
+        }
+    }
+    
+    private boolean dispatch(List<PaymentJob> jobs) {
+        boolean dispatched = true;
+        for (PaymentJob job : jobs) {
+            inFlight.incrementAndGet();
+            try {
+                // The slot is held until the processor answers, not just while the thread runs
+                executor.execute(() -> run(job).whenComplete((ignored, error) -> inFlight.decrementAndGet()));
+            } catch (RuntimeException e) {
+                // Job stays claimed and is picked up again after the visibility timeout
+                inFlight.decrementAndGet();
+                log.error("Could not dispatch payment job {}", job.getId(), e);
+                dispatched = false;
+            }
+        }
+        return dispatched;
+    }
+    
+    private CompletableFuture<Void> run(PaymentJob job) {
+        long started = System.nanoTime();
+        CompletableFuture<Void> payment;
+        try {
+            payment = transactionService.processPayment(job.getTransactionId(), job.getTransactionCreatedAt());
+        } catch (Exception e) {
+            payment = CompletableFuture.failedFuture(e);
+        }
+        
+        return payment.handle((ignored, error) -> {
+            if (adaptive) {
+                limit.onSample(System.nanoTime() - started, error != null);
+            }
+            try {
+                if (error == null) {
+                    queueService.complete(job);
+                } else {
+                    settleFailure(job, error instanceof CompletionException ? error.getCause() : error);
+                }
+            } catch (Exception e) {
+                log.error("Could not settle payment job {}", job.getId(), e);
+            }
+            return null;
+        });
+    }
+    
+    private void settleFailure(PaymentJob job, Throwable error) {
+        log.warn("Payment job {} attempt {} failed: {}", job.getId(), job.getAttemptCount(), error.getMessage());
+        if (queueService.isExhausted(job)) {
+            transactionService.failPayment(
+                job.getTransactionId(),
+                job.getTransactionCreatedAt(),
+                "Processing attempts exhausted: " + error.getMessage()
+            );
+            queueService.complete(job);
+        } else {
+            queueService.retryLater(job, error.getMessage());
+        }
+    }
+}
+
@@ -0,0 +1,133 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.entity.TransactionHistory;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.exception.TransactionNotFoundException;
+import com.yourname.paymentgateway.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * The short database transactions around a payment processor call. Each
+ * method commits on its own so no connection is held while the processor
+ * is working; {@link TransactionService#processPayment} strings them together.
+ * Transactions are looked up by id and created_at, as carried on the queue
+ * job, so each step reads a single partition.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentTransitionService {
+    
+    private final TransactionRepository transactionRepository;
+    private final TransactionAuditLog auditLog;
+    private final WebhookService webhookService;
+    private final PaymentMetrics paymentMetrics;
+    
+    /**
+     * Moves a PENDING payment to PROCESSING and returns it. A payment already
+     * in PROCESSING is returned as-is: its previous attempt stopped between
+     * claim and outcome, and the queue lease guarantees we are the only worker.
+     * Any other status means there is nothing left to do.
+     */
+    @Transactional
+    public Optional<Transaction> startProcessing(Long transactionId, LocalDateTime createdAt) {
+        Transaction transaction = transactionRepository.findByIdAndCreatedAt(transactionId, createdAt)
+            .orElseThrow(() -> new TransactionNotFoundException(transactionId));
+        
+        if (transaction.getStatus() == TransactionStatus.PROCESSING) {
+            log.info("Resuming transaction {} left in PROCESSING", transactionId);
+            return Optional.of(transaction);
+        }
+        
+        // Queue jobs can be redelivered after a crash; only PENDING is processable
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            log.info("Skipping transaction {} already in status {}", transactionId, transaction.getStatus());
+            return Optional.empty();
+        }
+        
+        transaction.transitionTo(TransactionStatus.PROCESSING);
+        logStateChange(transaction, TransactionStatus.PENDING,
+                      TransactionStatus.PROCESSING, "Payment processing started");
+        if (transaction.getCreatedAt() != null) {
+            paymentMetrics.recordQueueWait(Duration.between(transaction.getCreatedAt(), LocalDateTime.now()));
+        }
+        return Optional.of(transactionRepository.save(transaction));
+    }
+    
+    @Transactional
+    public void completeProcessing(
+        Long transactionId,
+        LocalDateTime createdAt,
+        PaymentProcessorClient.PaymentResult result
+    ) {
+        Transaction transaction = transactionRepository.findByIdAndCreatedAt(transactionId, createdAt)
+            .orElseThrow(() -> new TransactionNotFoundException(transactionId));
+        
+        if (transaction.getStatus() != TransactionStatus.PROCESSING) {
+            log.warn("Ignoring processor result for transaction {} in status {}",
+                     transactionId, transaction.getStatus());
+            return;
+        }
+        
+        if (result.isSuccessful()) {
+            transaction.transitionTo(TransactionStatus.COMPLETED);
+            logStateChange(transaction, TransactionStatus.PROCESSING,
+                          TransactionStatus.COMPLETED, "Payment successful");
+            
+            // Send webhook notification
+            webhookService.sendTransactionCompletedEvent(transaction);
+        } else {
+            transaction.transitionTo(TransactionStatus.FAILED);
+            logStateChange(transaction, TransactionStatus.PROCESSING,
+                          TransactionStatus.FAILED,
+                          "Payment failed: " + result.getErrorMessage());
+            
+            // Send webhook notification for failure
+            webhookService.sendTransactionFailedEvent(transaction);
+        }
+        
+        transactionRepository.save(transaction);
+    }
+    
+    /**
+     * Marks a PENDING or PROCESSING payment FAILED; no-op for any other status.
+     */
+    @Transactional
+    public void fail(Long transactionId, LocalDateTime createdAt, String reason) {
+        Transaction transaction = transactionRepository.findByIdAndCreatedAt(transactionId, createdAt)
+            .orElseThrow(() -> new TransactionNotFoundException(transactionId));
+        
+        TransactionStatus fromStatus = transaction.getStatus();
+        if (fromStatus != TransactionStatus.PENDING && fromStatus != TransactionStatus.PROCESSING) {
+            return;
+        }
+        
+        transaction.transitionTo(TransactionStatus.FAILED);
+        logStateChange(transaction, fromStatus, TransactionStatus.FAILED, reason);
+        transactionRepository.save(transaction);
+        
+        webhookService.sendTransactionFailedEvent(transaction);
+    }
+    
+    private void logStateChange(Transaction transaction,
+                                TransactionStatus fromStatus,
+                                TransactionStatus toStatus,
+                                String reason) {
+        auditLog.record(TransactionHistory.builder()
+            .transaction(transaction)
+            .fromStatus(fromStatus)
+            .toStatus(toStatus)
+            .reason(reason)
+            .changedBy("SYSTEM")
+            .build());
+    }
+}
+
@@ -1,56 +1,64 @@
 package com.yourname.paymentgateway.service;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 @Service
 public class RateLimitService {
     
-    @Value("${payment.rate-limit.requests-per-minute:120}")
-    private int requestsPerMinute;
+    private final RateLimiter rateLimiter;
+    private final PaymentMetrics paymentMetrics;
+    private final int requestsPerMinute;
     
-    private final Map<Long, Bucket> cache = new ConcurrentHashMap<>();
+    public RateLimitService(
+        RateLimiter rateLimiter,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.rate-limit.requests-per-minute:120}") int requestsPerMinute
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.paymentMetrics = paymentMetrics;
+        this.requestsPerMinute = requestsPerMinute;
+    }
     
     /**
-     * Resolves rate limit bucket for merchant.
-     * Limit: configurable requests per minute (default 120).
+     * Checks if request is allowed for merchant.
+     * Limit: the merchant's own rate_limit_per_minute, or the configured default.
+     * @return true if request is allowed, false if rate limit exceeded
      */
-    public Bucket resolveBucket(Long merchantId) {
-        return cache.computeIfAbsent(merchantId, this::createNewBucket);
-    }
-    
-    private Bucket createNewBucket(Long merchantId) {
-        Bandwidth limit = Bandwidth.classic(
-            requestsPerMinute,
-            Refill.intervally(requestsPerMinute, Duration.ofMinutes(1))
-        );
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
+    public boolean tryConsume(AuthenticatedMerchant merchant) {
+        return tryConsume(merchant, 1);
     }
     
     /**
-     * Checks if request is allowed for merchant.
-     * @return true if request is allowed, false if rate limit exceeded
+     * Takes several tokens at once, e.g. one per item of a batch request.
+     * Either all of them are taken or none.
      */
+    public boolean tryConsume(AuthenticatedMerchant merchant, int tokens) {
+        boolean allowed = rateLimiter.tryConsume(merchant.id(), limitFor(merchant), tokens);
+        if (!allowed) {
+            paymentMetrics.recordRateLimitRejection(merchant);
+        }
+        return allowed;
+    }
+    
     public boolean tryConsume(Long merchantId) {
-        Bucket bucket = resolveBucket(merchantId);
-        return bucket.tryConsume(1);
+        return rateLimiter.tryConsume(merchantId, requestsPerMinute);
     }
     
     /**
      * Gets remaining tokens for merchant.
      */
+    public long getAvailableTokens(AuthenticatedMerchant merchant) {
+        return rateLimiter.getAvailableTokens(merchant.id(), limitFor(merchant));
+    }
+    
     public long getAvailableTokens(Long merchantId) {
-        Bucket bucket = resolveBucket(merchantId);
-        return bucket.getAvailableTokens();
+        return rateLimiter.getAvailableTokens(merchantId, requestsPerMinute);
+    }
+    
+    private int limitFor(AuthenticatedMerchant merchant) {
+        return merchant.rateLimitPerMinute() != null ? merchant.rateLimitPerMinute() : requestsPerMinute;
     }
 }
 
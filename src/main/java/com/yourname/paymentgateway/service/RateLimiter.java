@@ -0,0 +1,20 @@
+package com.yourname.paymentgateway.service;
+
+/**
+ * Store behind {@link RateLimitService}. Limits are per merchant and per
+ * minute; the caller resolves the merchant's limit.
+ */
+public interface RateLimiter {
+    
+    /**
+     * Takes {@code tokens} from the merchant's limit, all or nothing.
+     */
+    boolean tryConsume(long merchantId, int requestsPerMinute, int tokens);
+    
+    default boolean tryConsume(long merchantId, int requestsPerMinute) {
+        return tryConsume(merchantId, requestsPerMinute, 1);
+    }
+    
+    long getAvailableTokens(long merchantId, int requestsPerMinute);
+}
+
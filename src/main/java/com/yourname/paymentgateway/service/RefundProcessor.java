@@ -0,0 +1,109 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.event.RefundRequestedEvent;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Drives a refund through the processor in three steps: a short transaction
+ * that claims it, the non-blocking processor call with no transaction or
+ * connection held, and a short transaction that records the outcome. Only a
+ * definite answer from the processor completes or fails a refund; a call
+ * that errors leaves it PROCESSING and it is retried with the same
+ * idempotency key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefundProcessor {
+    
+    private final RefundService refundService;
+    private final PaymentProcessorClient processorClient;
+    private final PaymentMetrics paymentMetrics;
+    
+    @Value("${app.refund.stale-after-seconds:60}")
+    private long staleAfterSeconds;
+    
+    @Value("${app.refund.recovery-batch-size:50}")
+    private int recoveryBatchSize;
+    
+    @Value("${app.refund.lease-seconds:120}")
+    private long leaseSeconds;
+    
+    @Value("${app.refund.retry-delay-seconds:10}")
+    private long retryDelaySeconds;
+    
+    @Async("refundExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRefundRequested(RefundRequestedEvent event) {
+        process(event.getRefundId());
+    }
+    
+    /**
+     * Picks up refunds whose after-commit dispatch never ran (node stopped,
+     * executor rejected the task) and refunds whose processing claim expired
+     * without an outcome (node died mid-call, recording the outcome failed).
+     * Claiming is atomic, so a refund that is being processed elsewhere is
+     * skipped.
+     */
+    @Scheduled(fixedDelayString = "${app.refund.recovery-interval-ms:30000}")
+    public void recoverStalled() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+        for (Long refundId : refundService.findStalledRefundIds(cutoff, recoveryBatchSize)) {
+            log.warn("Recovering stalled refund {}", refundId);
+            process(refundId);
+        }
+    }
+    
+    public CompletableFuture<Void> process(Long refundId) {
+        Optional<Refund> claimed = refundService.startProcessing(refundId, Duration.ofSeconds(leaseSeconds));
+        if (claimed.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        Refund refund = claimed.get();
+        Timer.Sample sample = paymentMetrics.startTimer();
+        CompletableFuture<Void> settled = paymentMetrics.timeProcessorCall("refund", () -> processorClient.refund(refund))
+            .handle((result, error) -> {
+                if (error != null) {
+                    // No definite answer (timeout, transport error, 5xx): the processor may
+                    // already have paid, so the refund must not fail or release its amount
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    log.warn("Refund {} attempt {} got no answer, retrying: {}",
+                        refundId, refund.getAttemptCount(), cause.getMessage());
+                    refundService.deferRefund(refundId, retryDelay(refund), cause.getMessage());
+                    return null;
+                }
+                refundService.completeRefund(refundId, result);
+                paymentMetrics.recordRefund(sample, result.isSuccessful());
+                return null;
+            });
+        return settled
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    // Still PROCESSING; recoverStalled retries it once the claim expires
+                    log.error("Could not record outcome of refund {}, retrying after lease expiry", refundId, error);
+                }
+            });
+    }
+    
+    // Linear backoff, as for payment jobs
+    private Duration retryDelay(Refund refund) {
+        return Duration.ofSeconds(retryDelaySeconds * Math.max(1, refund.getAttemptCount()));
+    }
+}
+
@@ -2,20 +2,27 @@ package com.yourname.paymentgateway.service;
 
 import com.yourname.paymentgateway.dto.request.RefundRequest;
 import com.yourname.paymentgateway.dto.response.RefundResponse;
-import com.yourname.paymentgateway.entity.Merchant;
 import com.yourname.paymentgateway.entity.Refund;
 import com.yourname.paymentgateway.entity.Transaction;
 import com.yourname.paymentgateway.enums.RefundStatus;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.event.RefundRequestedEvent;
 import com.yourname.paymentgateway.exception.TransactionNotFoundException;
 import com.yourname.paymentgateway.repository.RefundRepository;
 import com.yourname.paymentgateway.repository.TransactionRepository;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,21 +34,25 @@ public class RefundService {
     private final RefundRepository refundRepository;
     private final TransactionRepository transactionRepository;
     private final WebhookService webhookService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public RefundResponse createRefund(
-        Merchant merchant,
+        AuthenticatedMerchant merchant,
         UUID transactionId,
         RefundRequest request
     ) {
+        // Row lock serializes concurrent refunds so they cannot oversubscribe the amount
         Transaction transaction = transactionRepository
-            .findByMerchantAndTransactionId(merchant, transactionId)
+            .findByMerchantIdAndTransactionIdForUpdate(merchant.id(), transactionId)
             .orElseThrow(() -> new TransactionNotFoundException(transactionId));
         
         // Validate transaction can be refunded
-        if (transaction.getStatus() != com.yourname.paymentgateway.enums.TransactionStatus.COMPLETED) {
+        if (transaction.getStatus() != TransactionStatus.COMPLETED
+                && transaction.getStatus() != TransactionStatus.PARTIALLY_REFUNDED) {
             throw new IllegalStateException(
-                "Transaction must be COMPLETED to process refund. Current status: " + transaction.getStatus()
+                "Transaction must be COMPLETED or PARTIALLY_REFUNDED to process refund. Current status: "
+                    + transaction.getStatus()
             );
         }
         
@@ -52,90 +63,163 @@ public class RefundService {
             );
         }
         
-        // Check existing refunds
-        BigDecimal totalRefunded = refundRepository.findByTransactionId(transaction.getId())
-            .stream()
-            .filter(r -> r.getStatus() == RefundStatus.COMPLETED)
-            .map(Refund::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal remainingAmount = transaction.getAmount().subtract(totalRefunded);
+        BigDecimal remainingAmount = transaction.getAmount().subtract(transaction.getRefundedAmount());
         if (request.getAmount().compareTo(remainingAmount) > 0) {
             throw new IllegalArgumentException(
                 String.format("Refund amount exceeds remaining refundable amount. Remaining: %s", remainingAmount)
             );
         }
         
+        // Reserve the amount now; it is released again if the refund fails
+        transaction.setRefundedAmount(transaction.getRefundedAmount().add(request.getAmount()));
+        transactionRepository.save(transaction);
+        
         // Create refund
         Refund refund = Refund.builder()
             .transaction(transaction)
+            .transactionCreatedAt(transaction.getCreatedAt())
             .amount(request.getAmount())
             .reason(request.getReason())
             .status(RefundStatus.PENDING)
-            .initiatedBy(merchant.getMerchantCode())
+            .initiatedBy(merchant.merchantCode())
             .build();
         
         refund = refundRepository.save(refund);
         
-        // Process refund asynchronously
-        processRefundAsync(refund.getId());
+        // Processed by RefundProcessor once this transaction commits
+        eventPublisher.publishEvent(new RefundRequestedEvent(refund.getId()));
         
         return mapToResponse(refund);
     }
     
-    @org.springframework.scheduling.annotation.Async
-    public void processRefundAsync(Long refundId) {
-        processRefund(refundId);
+    /**
+     * Claims a refund for processing for the length of {@code lease}. Returns
+     * empty if it is finished or another worker holds a live claim, so a
+     * redelivered event cannot process the refund twice. A claim that expires
+     * without an outcome can be taken again; the retried processor call uses
+     * the same idempotency key.
+     */
+    @Transactional
+    public Optional<Refund> startProcessing(Long refundId, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = refundRepository.claim(refundId, now, now.plus(lease));
+        if (claimed == 0) {
+            log.info("Skipping refund {} that is finished or claimed elsewhere", refundId);
+            return Optional.empty();
+        }
+        
+        return refundRepository.findById(refundId);
     }
     
+    /**
+     * PENDING refunds older than the cutoff, e.g. because the node that
+     * created them stopped before processing started, and PROCESSING refunds
+     * whose claim expired without an outcome being recorded.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findStalledRefundIds(LocalDateTime createdBefore, int limit) {
+        return refundRepository.findRecoverableIds(
+            RefundStatus.PENDING,
+            createdBefore,
+            RefundStatus.PROCESSING,
+            LocalDateTime.now(),
+            PageRequest.of(0, limit)
+        );
+    }
+    
+    /**
+     * Keeps a refund PROCESSING after a processor call without a definite
+     * answer. The processor may have paid it, so it is neither failed nor
+     * is its amount released; recovery repeats the call once {@code delay}
+     * has passed.
+     */
+    @Transactional
+    public void deferRefund(Long refundId, Duration delay, String error) {
+        refundRepository.findById(refundId)
+            .filter(refund -> refund.getStatus() == RefundStatus.PROCESSING)
+            .ifPresent(refund -> {
+                refund.setLockedUntil(LocalDateTime.now().plus(delay));
+                refund.setLastError(error);
+                refundRepository.save(refund);
+            });
+    }
+    
+    /**
+     * Records the processor's answer for a claimed refund and moves the
+     * transaction to REFUNDED or PARTIALLY_REFUNDED.
+     */
     @Transactional
-    public void processRefund(Long refundId) {
+    public void completeRefund(Long refundId, PaymentProcessorClient.PaymentResult result) {
         Refund refund = refundRepository.findById(refundId)
             .orElseThrow(() -> new RuntimeException("Refund not found"));
         
-        try {
-            refund.setStatus(RefundStatus.PROCESSING);
-            refundRepository.save(refund);
-            
-            // Simulate refund processing
-            Thread.sleep(500);
-            
-            refund.setStatus(RefundStatus.COMPLETED);
-            refund.setProcessedAt(java.time.LocalDateTime.now());
-            refundRepository.save(refund);
-            
-            // Update transaction status if fully refunded
-            Transaction transaction = refund.getTransaction();
-            BigDecimal totalRefunded = refundRepository.findByTransactionId(transaction.getId())
-                .stream()
-                .filter(r -> r.getStatus() == RefundStatus.COMPLETED)
-                .map(Refund::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            if (totalRefunded.compareTo(transaction.getAmount()) == 0) {
-                transaction.transitionTo(com.yourname.paymentgateway.enums.TransactionStatus.REFUNDED);
-            } else {
-                transaction.transitionTo(com.yourname.paymentgateway.enums.TransactionStatus.PARTIALLY_REFUNDED);
-            }
-            transactionRepository.save(transaction);
-            
-            // Send webhook notification
-            webhookService.sendRefundCompletedEvent(refund);
-            
-        } catch (Exception e) {
-            log.error("Refund processing failed for refund: {}", refundId, e);
+        if (refund.getStatus() != RefundStatus.PROCESSING) {
+            log.warn("Ignoring result for refund {} in status {}", refundId, refund.getStatus());
+            return;
+        }
+        
+        if (!result.isSuccessful()) {
+            log.error("Refund processing failed for refund: {}: {}", refundId, result.getErrorMessage());
             refund.setStatus(RefundStatus.FAILED);
+            refund.setLockedUntil(null);
+            refund.setLastError(result.getErrorMessage());
             refundRepository.save(refund);
+            releaseReservation(refund);
+            return;
         }
+        
+        refund.setStatus(RefundStatus.COMPLETED);
+        refund.setProcessedAt(LocalDateTime.now());
+        refund.setLockedUntil(null);
+        refundRepository.save(refund);
+        
+        // Fully refunded once the whole amount is reserved and no other refund is still in flight
+        Transaction transaction = lockTransaction(refund)
+            .orElseThrow(() -> new TransactionNotFoundException(refund.getTransaction().getTransactionId()));
+        boolean othersInFlight = refundRepository.existsByTransactionIdAndStatusInAndIdNot(
+            transaction.getId(),
+            List.of(RefundStatus.PENDING, RefundStatus.PROCESSING),
+            refund.getId()
+        );
+        TransactionStatus target = !othersInFlight
+                && transaction.getRefundedAmount().compareTo(transaction.getAmount()) >= 0
+            ? TransactionStatus.REFUNDED
+            : TransactionStatus.PARTIALLY_REFUNDED;
+        if (transaction.getStatus() != target) {
+            transaction.transitionTo(target);
+            transactionRepository.save(transaction);
+        }
+        
+        // Send webhook notification
+        webhookService.sendRefundCompletedEvent(refund);
+    }
+    
+    private void releaseReservation(Refund refund) {
+        lockTransaction(refund)
+            .ifPresent(transaction -> {
+                transaction.setRefundedAmount(transaction.getRefundedAmount().subtract(refund.getAmount()));
+                transactionRepository.save(transaction);
+            });
+    }
+    
+    /**
+     * Row-locks the refunded transaction in its own partition only. The id
+     * comes from the unloaded association, so the lock is the first read.
+     */
+    private Optional<Transaction> lockTransaction(Refund refund) {
+        return transactionRepository.findByIdForUpdate(
+            refund.getTransaction().getId(),
+            refund.getTransactionCreatedAt()
+        );
     }
     
     @Transactional(readOnly = true)
-    public RefundResponse getRefund(Merchant merchant, UUID refundId) {
+    public RefundResponse getRefund(AuthenticatedMerchant merchant, UUID refundId) {
         Refund refund = refundRepository.findByRefundId(refundId)
             .orElseThrow(() -> new RuntimeException("Refund not found"));
         
         // Verify merchant owns the transaction
-        if (!refund.getTransaction().getMerchant().getId().equals(merchant.getId())) {
+        if (!refund.getTransaction().getMerchant().getId().equals(merchant.id())) {
             throw new RuntimeException("Refund not found");
         }
         
@@ -143,9 +227,9 @@ public class RefundService {
     }
     
     @Transactional(readOnly = true)
-    public List<RefundResponse> getRefundsByTransaction(Merchant merchant, UUID transactionId) {
+    public List<RefundResponse> getRefundsByTransaction(AuthenticatedMerchant merchant, UUID transactionId) {
         Transaction transaction = transactionRepository
-            .findByMerchantAndTransactionId(merchant, transactionId)
+            .findByMerchantIdAndTransactionId(merchant.id(), transactionId)
             .orElseThrow(() -> new TransactionNotFoundException(transactionId));
         
         return refundRepository.findByTransactionId(transaction.getId())
@@ -2,17 +2,17 @@ package com.yourname.paymentgateway.service;
 
 import com.yourname.paymentgateway.dto.response.DailySummaryResponse;
 import com.yourname.paymentgateway.dto.response.RevenueReportResponse;
-import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.entity.TransactionDailyRollup;
 import com.yourname.paymentgateway.enums.TransactionStatus;
-import com.yourname.paymentgateway.repository.TransactionRepository;
+import com.yourname.paymentgateway.repository.TransactionDailyRollupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -23,41 +23,39 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReportService {
     
-    private final TransactionRepository transactionRepository;
+    private final TransactionDailyRollupRepository rollupRepository;
     
     @Transactional(readOnly = true)
     public List<DailySummaryResponse> getDailySummary(Long merchantId, LocalDate startDate, LocalDate endDate) {
-        LocalDateTime start = startDate.atStartOfDay();
-        LocalDateTime end = endDate.atTime(23, 59, 59);
-        
-        // Get all transactions for the merchant in the date range
-        List<Transaction> transactions = transactionRepository.findAll()
-            .stream()
-            .filter(t -> t.getMerchant().getId().equals(merchantId))
-            .filter(t -> t.getCreatedAt().isAfter(start) && t.getCreatedAt().isBefore(end))
-            .collect(Collectors.toList());
+        // Pre-aggregated buckets for the merchant in the date range
+        List<TransactionDailyRollup> rollups = rollupRepository
+            .findByMerchantIdAndRollupDateBetweenOrderByRollupDateAsc(merchantId, startDate, endDate);
         
         // Group by date
-        Map<LocalDate, List<Transaction>> transactionsByDate = transactions.stream()
-            .collect(Collectors.groupingBy(t -> t.getCreatedAt().toLocalDate()));
+        Map<LocalDate, List<TransactionDailyRollup>> rollupsByDate = rollups.stream()
+            .collect(Collectors.groupingBy(TransactionDailyRollup::getRollupDate));
         
         List<DailySummaryResponse> summary = new ArrayList<>();
         
         LocalDate currentDate = startDate;
         while (!currentDate.isAfter(endDate)) {
-            List<Transaction> dayTransactions = transactionsByDate.getOrDefault(currentDate, List.of());
+            List<TransactionDailyRollup> dayRollups = rollupsByDate.getOrDefault(currentDate, List.of());
             
-            long totalCount = dayTransactions.size();
-            long completedCount = dayTransactions.stream()
-                .filter(t -> t.getStatus() == TransactionStatus.COMPLETED)
-                .count();
-            long failedCount = dayTransactions.stream()
-                .filter(t -> t.getStatus() == TransactionStatus.FAILED)
-                .count();
+            long totalCount = dayRollups.stream()
+                .mapToLong(TransactionDailyRollup::getTransactionCount)
+                .sum();
+            long completedCount = dayRollups.stream()
+                .filter(r -> r.getStatus() == TransactionStatus.COMPLETED)
+                .mapToLong(TransactionDailyRollup::getTransactionCount)
+                .sum();
+            long failedCount = dayRollups.stream()
+                .filter(r -> r.getStatus() == TransactionStatus.FAILED)
+                .mapToLong(TransactionDailyRollup::getTransactionCount)
+                .sum();
             
-            BigDecimal totalAmount = dayTransactions.stream()
-                .filter(t -> t.getStatus() == TransactionStatus.COMPLETED)
-                .map(Transaction::getAmount)
+            BigDecimal totalAmount = dayRollups.stream()
+                .filter(r -> r.getStatus() == TransactionStatus.COMPLETED)
+                .map(TransactionDailyRollup::getTotalAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
             
             summary.add(DailySummaryResponse.builder()
@@ -76,32 +74,30 @@ public class ReportService {
     
     @Transactional(readOnly = true)
     public RevenueReportResponse getRevenueReport(Long merchantId, LocalDate startDate, LocalDate endDate) {
-        LocalDateTime start = startDate.atStartOfDay();
-        LocalDateTime end = endDate.atTime(23, 59, 59);
-        
-        // Get all completed transactions for the merchant in the date range
-        List<Transaction> transactions = transactionRepository.findAll()
+        // Completed buckets for the merchant in the date range
+        List<TransactionDailyRollup> rollups = rollupRepository
+            .findByMerchantIdAndRollupDateBetweenOrderByRollupDateAsc(merchantId, startDate, endDate)
             .stream()
-            .filter(t -> t.getMerchant().getId().equals(merchantId))
-            .filter(t -> t.getStatus() == TransactionStatus.COMPLETED)
-            .filter(t -> t.getCreatedAt().isAfter(start) && t.getCreatedAt().isBefore(end))
+            .filter(r -> r.getStatus() == TransactionStatus.COMPLETED)
             .collect(Collectors.toList());
         
-        BigDecimal totalRevenue = transactions.stream()
-            .map(Transaction::getAmount)
+        BigDecimal totalRevenue = rollups.stream()
+            .map(TransactionDailyRollup::getTotalAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        long totalTransactions = transactions.size();
+        long totalTransactions = rollups.stream()
+            .mapToLong(TransactionDailyRollup::getTransactionCount)
+            .sum();
         
         BigDecimal averageTransactionAmount = totalTransactions > 0
-            ? totalRevenue.divide(BigDecimal.valueOf(totalTransactions), 2, BigDecimal.ROUND_HALF_UP)
+            ? totalRevenue.divide(BigDecimal.valueOf(totalTransactions), 2, RoundingMode.HALF_UP)
             : BigDecimal.ZERO;
         
         // Group by currency
-        Map<String, BigDecimal> revenueByCurrency = transactions.stream()
+        Map<String, BigDecimal> revenueByCurrency = rollups.stream()
             .collect(Collectors.groupingBy(
-                Transaction::getCurrency,
-                Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
+                TransactionDailyRollup::getCurrency,
+                Collectors.reducing(BigDecimal.ZERO, TransactionDailyRollup::getTotalAmount, BigDecimal::add)
             ));
         
         return RevenueReportResponse.builder()
@@ -0,0 +1,107 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards another PaymentProcessorClient with a circuit breaker per payment
+ * method (a card network outage does not stop bank transfers) plus one for
+ * refunds, and a bulkhead that caps calls in flight toward the processor.
+ * A rejected call fails immediately with a PaymentProcessorException instead
+ * of waiting on a processor that is already struggling. Callers treat it like
+ * any call without a definite answer: a payment job is requeued with backoff,
+ * and a refund stays PROCESSING until RefundProcessor retries it, so neither
+ * is failed by an open breaker or a full bulkhead. Declines count as
+ * successful calls.
+ */
+@Slf4j
+public class ResilientPaymentProcessorClient implements PaymentProcessorClient {
+    
+    private final PaymentProcessorClient delegate;
+    private final Map<PaymentMethod, CircuitBreaker> chargeBreakers = new EnumMap<>(PaymentMethod.class);
+    private final CircuitBreaker refundBreaker;
+    private final Bulkhead bulkhead;
+    
+    public ResilientPaymentProcessorClient(
+        PaymentProcessorClient delegate,
+        CircuitBreakerRegistry breakerRegistry,
+        Bulkhead bulkhead,
+        PaymentMetrics paymentMetrics
+    ) {
+        this.delegate = delegate;
+        for (PaymentMethod method : PaymentMethod.values()) {
+            chargeBreakers.put(method, breakerRegistry.circuitBreaker("payment-processor-" + method.name().toLowerCase()));
+        }
+        this.refundBreaker = breakerRegistry.circuitBreaker("payment-processor-refund");
+        this.bulkhead = bulkhead;
+        
+        breakerRegistry.getAllCircuitBreakers().forEach(breaker ->
+            breaker.getEventPublisher().onStateTransition(event -> {
+                log.warn("Circuit breaker {} moved {}", event.getCircuitBreakerName(), event.getStateTransition());
+                paymentMetrics.recordCircuitTransition(
+                    event.getCircuitBreakerName(),
+                    event.getStateTransition().getFromState().name(),
+                    event.getStateTransition().getToState().name()
+                );
+            })
+        );
+    }
+    
+    @Override
+    public CompletableFuture<PaymentResult> charge(Transaction transaction) {
+        return guarded(chargeBreakers.get(transaction.getPaymentMethod()), () -> delegate.charge(transaction));
+    }
+    
+    @Override
+    public CompletableFuture<PaymentResult> refund(Refund refund) {
+        return guarded(refundBreaker, () -> delegate.refund(refund));
+    }
+    
+    private CompletableFuture<PaymentResult> guarded(
+        CircuitBreaker breaker,
+        Supplier<CompletableFuture<PaymentResult>> call
+    ) {
+        if (!breaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(
+                new PaymentProcessorException("Circuit breaker " + breaker.getName() + " is open")
+            );
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            breaker.releasePermission();
+            return CompletableFuture.failedFuture(
+                new PaymentProcessorException("Payment processor bulkhead is full")
+            );
+        }
+        
+        long start = System.nanoTime();
+        CompletableFuture<PaymentResult> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        
+        return future.whenComplete((result, error) -> {
+            bulkhead.onComplete();
+            long elapsed = System.nanoTime() - start;
+            if (error != null) {
+                breaker.onError(elapsed, TimeUnit.NANOSECONDS, error);
+            } else {
+                breaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+}
+
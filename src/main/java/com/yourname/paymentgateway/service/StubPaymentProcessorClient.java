@@ -0,0 +1,113 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the payment processor. Latency is drawn uniformly
+ * from [latencyMinMs, latencyMaxMs], with a configurable share of calls
+ * landing in a slow tail instead. Declines, transport errors and timeouts
+ * are injected at configurable rates. No thread sleeps while a call is
+ * "in flight"; the result is scheduled onto the callback executor.
+ */
+@Slf4j
+public class StubPaymentProcessorClient implements PaymentProcessorClient {
+    
+    private static final String[] DECLINE_REASONS = {
+        "Insufficient funds",
+        "Card declined by issuer",
+        "Invalid card number",
+        "Expired card",
+        "Transaction limit exceeded"
+    };
+    
+    private final Executor callbackExecutor;
+    private final Settings settings;
+    
+    public StubPaymentProcessorClient(Executor callbackExecutor, Settings settings) {
+        this.callbackExecutor = callbackExecutor;
+        this.settings = settings;
+    }
+    
+    @Override
+    public CompletableFuture<PaymentResult> charge(Transaction transaction) {
+        log.info("Processing payment for transaction: {}", transaction.getTransactionId());
+        return call(nextLatencyMs(), () -> {
+            if (ThreadLocalRandom.current().nextDouble() < settings.successRate()) {
+                return new PaymentResult(true, "APPROVED", "Payment processed successfully", processorId());
+            }
+            return new PaymentResult(false, "DECLINED", declineReason(), null);
+        });
+    }
+    
+    @Override
+    public CompletableFuture<PaymentResult> refund(Refund refund) {
+        log.info("Processing refund: {}", refund.getRefundId());
+        return call(settings.refundLatencyMs(), () ->
+            new PaymentResult(true, "APPROVED", "Refund processed successfully", processorId())
+        );
+    }
+    
+    private CompletableFuture<PaymentResult> call(long latencyMs, Supplier<PaymentResult> outcome) {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        
+        // An injected timeout, or a call slower than the timeout, never answers in time
+        if (roll < settings.timeoutRate() || latencyMs > settings.timeoutMs()) {
+            return fail(settings.timeoutMs(), "Payment processor timed out after " + settings.timeoutMs() + " ms");
+        }
+        if (roll < settings.timeoutRate() + settings.errorRate()) {
+            return fail(latencyMs, "Payment processor unavailable");
+        }
+        return CompletableFuture.supplyAsync(outcome, delayed(latencyMs));
+    }
+    
+    private CompletableFuture<PaymentResult> fail(long delayMs, String message) {
+        return CompletableFuture.supplyAsync(() -> {
+            throw new PaymentProcessorException(message);
+        }, delayed(delayMs));
+    }
+    
+    private Executor delayed(long delayMs) {
+        return CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, callbackExecutor);
+    }
+    
+    private long nextLatencyMs() {
+        Random random = ThreadLocalRandom.current();
+        if (random.nextDouble() < settings.tailRate()) {
+            return settings.tailLatencyMs();
+        }
+        long spread = Math.max(0, settings.latencyMaxMs() - settings.latencyMinMs());
+        return settings.latencyMinMs() + (spread == 0 ? 0 : random.nextLong(spread + 1));
+    }
+    
+    private static String processorId() {
+        return "PROC_" + System.currentTimeMillis() + "_" + ThreadLocalRandom.current().nextInt(10000);
+    }
+    
+    private static String declineReason() {
+        return DECLINE_REASONS[ThreadLocalRandom.current().nextInt(DECLINE_REASONS.length)];
+    }
+    
+    public record Settings(
+        long latencyMinMs,
+        long latencyMaxMs,
+        double tailRate,
+        long tailLatencyMs,
+        long refundLatencyMs,
+        double successRate,
+        double errorRate,
+        double timeoutRate,
+        long timeoutMs
+    ) {
+    }
+}
+
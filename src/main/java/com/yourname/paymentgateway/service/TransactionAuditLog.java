@@ -0,0 +1,73 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.TransactionHistory;
+import com.yourname.paymentgateway.repository.TransactionHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Collects transaction history rows for the current DB transaction and
+ * writes them in one batched saveAll just before commit. The payment path no
+ * longer pays for an insert per transition, and the audit trail commits or
+ * rolls back with the state change it describes.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionAuditLog {
+    
+    private final TransactionHistoryRepository historyRepository;
+    
+    public void record(TransactionHistory entry) {
+        recordAll(List.of(entry));
+    }
+    
+    public void recordAll(Collection<TransactionHistory> entries) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            historyRepository.saveAll(entries);
+            return;
+        }
+        
+        pendingEntries().addAll(entries);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<TransactionHistory> pendingEntries() {
+        List<TransactionHistory> pending = (List<TransactionHistory>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        
+        List<TransactionHistory> buffer = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, buffer);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(TransactionAuditLog.this);
+            }
+            
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(TransactionAuditLog.this, buffer);
+            }
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                historyRepository.saveAll(buffer);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionAuditLog.this);
+            }
+        });
+        return buffer;
+    }
+}
+
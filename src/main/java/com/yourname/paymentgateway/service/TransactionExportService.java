@@ -0,0 +1,186 @@
+package com.yourname.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.exception.ServiceOverloadedException;
+import com.yourname.paymentgateway.repository.TransactionExportRepository;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams a merchant's transactions as NDJSON or CSV. Each row is written as
+ * soon as it is read from the cursor, so memory stays flat regardless of
+ * how many rows match. An export holds a pooled connection for the whole
+ * download, so only app.export.max-concurrent run at once per node; further
+ * requests get 503 before a connection is taken.
+ */
+@Service
+public class TransactionExportService {
+    
+    private static final String CSV_HEADER =
+        "transaction_id,amount,currency,status,payment_method,description," +
+        "customer_email,customer_name,created_at,completed_at,failed_at";
+    
+    private final TransactionExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exportSlots;
+    private final long retryAfterSeconds;
+    
+    public TransactionExportService(
+        TransactionExportRepository exportRepository,
+        ObjectMapper objectMapper,
+        @Value("${app.export.max-concurrent:2}") int maxConcurrent,
+        @Value("${app.export.retry-after-seconds:30}") long retryAfterSeconds
+    ) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+        this.exportSlots = new Semaphore(maxConcurrent);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        /**
+         * Resolves the format request parameter, e.g. "csv".
+         */
+        public static Format fromParameter(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+        }
+    }
+    
+    /**
+     * Where the export is written. Opened only once the export has a slot,
+     * so the caller can set download headers without committing to them
+     * when the request is rejected.
+     */
+    @FunctionalInterface
+    public interface ExportTarget {
+        OutputStream open(Format format) throws IOException;
+    }
+    
+    public void export(
+        AuthenticatedMerchant merchant,
+        String status,
+        String startDate,
+        String endDate,
+        Format format,
+        ExportTarget target
+    ) throws IOException {
+        TransactionStatus statusEnum = status != null ? TransactionStatus.valueOf(status) : null;
+        LocalDateTime start = startDate != null ? LocalDateTime.parse(startDate) : null;
+        LocalDateTime end = endDate != null ? LocalDateTime.parse(endDate) : null;
+        
+        if (!exportSlots.tryAcquire()) {
+            throw new ServiceOverloadedException("Too many exports in progress, please retry later", retryAfterSeconds);
+        }
+        try {
+            write(merchant.id(), statusEnum, start, end, format, target.open(format));
+        } finally {
+            exportSlots.release();
+        }
+    }
+    
+    private void write(
+        Long merchantId,
+        TransactionStatus status,
+        LocalDateTime start,
+        LocalDateTime end,
+        Format format,
+        OutputStream out
+    ) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        try {
+            exportRepository.streamByMerchantAndFilters(merchantId, status, start, end, row -> {
+                try {
+                    writer.write(format == Format.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client went away mid-download; abort the query
+            throw e.getCause();
+        }
+        
+        writer.flush();
+    }
+    
+    private String toCsv(TransactionResponse row) {
+        return String.join(",",
+            String.valueOf(row.getTransactionId()),
+            row.getAmount().toPlainString(),
+            row.getCurrency(),
+            row.getStatus().name(),
+            row.getPaymentMethod().name(),
+            csvText(row.getDescription()),
+            csvText(row.getCustomerEmail()),
+            csvText(row.getCustomerName()),
+            csvValue(row.getCreatedAt()),
+            csvValue(row.getCompletedAt()),
+            csvValue(row.getFailedAt())
+        );
+    }
+    
+    private String csvValue(Object value) {
+        return value != null ? value.toString() : "";
+    }
+    
+    /**
+     * Quotes free-text columns and neutralises leading formula characters so
+     * the file is safe to open in a spreadsheet.
+     */
+    private String csvText(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            value = "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
+
@@ -0,0 +1,96 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.repository.TransactionPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of the transactions table ahead of the clock
+ * and, when retention is configured, detaches partitions that fell out of it.
+ * Detached partitions keep their rows; in archive mode they are moved to the
+ * archive schema so they can be dumped and dropped outside the hot path.
+ */
+@Service
+@Slf4j
+public class TransactionPartitionService {
+    
+    private static final long MAINTENANCE_LOCK_KEY = "transactions-partition-maintenance".hashCode();
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("'transactions_'uuuu_MM");
+    
+    private final TransactionPartitionRepository partitionRepository;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean archive;
+    
+    public TransactionPartitionService(
+        TransactionPartitionRepository partitionRepository,
+        @Value("${app.partitions.transactions.months-ahead:3}") int monthsAhead,
+        @Value("${app.partitions.transactions.retention-months:0}") int retentionMonths,
+        @Value("${app.partitions.transactions.retention-action:archive}") String retentionAction
+    ) {
+        this.partitionRepository = partitionRepository;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archive = "archive".equalsIgnoreCase(retentionAction);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.transactions.cron:0 15 0 * * *}")
+    @Transactional
+    public void maintain() {
+        if (!partitionRepository.tryLock(MAINTENANCE_LOCK_KEY)) {
+            log.debug("Transaction partition maintenance already running on another node");
+            return;
+        }
+        
+        YearMonth current = YearMonth.now();
+        createAhead(current);
+        if (retentionMonths > 0) {
+            retireBefore(current.minusMonths(retentionMonths));
+        }
+        
+        long stray = partitionRepository.countDefaultPartitionRows();
+        if (stray > 0) {
+            log.warn("{} transactions landed in transactions_default; check partition maintenance", stray);
+        }
+    }
+    
+    private void createAhead(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate monthStart = current.plusMonths(i).atDay(1);
+            partitionRepository.createPartition(monthStart);
+        }
+    }
+    
+    private void retireBefore(YearMonth oldestKept) {
+        for (String partition : expiredPartitions(partitionRepository.findMonthlyPartitions(), oldestKept)) {
+            partitionRepository.detachPartition(partition);
+            if (archive) {
+                partitionRepository.moveToArchive(partition);
+            }
+            log.info("Retired transactions partition {} ({})", partition, archive ? "archived" : "detached");
+        }
+    }
+    
+    static List<String> expiredPartitions(List<String> partitions, YearMonth oldestKept) {
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            if (YearMonth.parse(partition, PARTITION_MONTH).isBefore(oldestKept)) {
+                expired.add(partition);
+            }
+        }
+        return expired;
+    }
+}
+
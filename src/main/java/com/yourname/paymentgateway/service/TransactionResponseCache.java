@@ -0,0 +1,63 @@
+package com.yourname.paymentgateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Short-lived in-process cache for GET /transactions/{id}, keyed by
+ * (merchantId, transactionId). Only FAILED and REFUNDED responses are kept:
+ * no transition leaves those states, so an entry can never go stale.
+ * COMPLETED is not cached because refunds still move it on. Hit/miss stats
+ * are published as "transaction.response".
+ */
+@Component
+public class TransactionResponseCache {
+    
+    private static final Set<TransactionStatus> FINAL_STATUSES =
+        Set.of(TransactionStatus.FAILED, TransactionStatus.REFUNDED);
+    
+    private final Cache<CacheKey, TransactionResponse> cache;
+    private final boolean enabled;
+    
+    public TransactionResponseCache(
+        @Value("${app.transactions.response-cache.enabled:true}") boolean enabled,
+        @Value("${app.transactions.response-cache.max-size:10000}") long maxSize,
+        @Value("${app.transactions.response-cache.ttl-seconds:30}") long ttlSeconds,
+        MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "transaction.response");
+    }
+    
+    public TransactionResponse get(Long merchantId, UUID transactionId) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.getIfPresent(new CacheKey(merchantId, transactionId));
+    }
+    
+    public void putIfFinal(Long merchantId, TransactionResponse response) {
+        if (enabled && FINAL_STATUSES.contains(response.getStatus())) {
+            cache.put(new CacheKey(merchantId, response.getTransactionId()), response);
+        }
+    }
+    
+    private record CacheKey(Long merchantId, UUID transactionId) {
+    }
+}
+
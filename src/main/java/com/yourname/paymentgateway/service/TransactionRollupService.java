@@ -0,0 +1,100 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.event.TransactionStatusChangedEvent;
+import com.yourname.paymentgateway.repository.TransactionDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionRollupService {
+    
+    private static final long FOLD_LOCK_KEY = "transaction-rollup-fold".hashCode();
+    
+    private final TransactionDailyRollupRepository rollupRepository;
+    
+    @Value("${app.reports.rollup.fold-batch-size:10000}")
+    private int foldBatchSize;
+    
+    /**
+     * Records the move from the old status bucket to the new one as deltas.
+     * Runs before commit so the deltas commit atomically with the state
+     * change; they reach the rollup table on the next {@link #foldDeltas}.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onStatusChanged(TransactionStatusChangedEvent event) {
+        Transaction transaction = event.getTransaction();
+        Long merchantId = transaction.getMerchant().getId();
+        LocalDate rollupDate = transaction.getCreatedAt().toLocalDate();
+        
+        if (event.getFromStatus() != null) {
+            rollupRepository.recordDelta(
+                merchantId,
+                rollupDate,
+                transaction.getCurrency(),
+                event.getFromStatus().name(),
+                -1,
+                transaction.getAmount().negate()
+            );
+        }
+        
+        rollupRepository.recordDelta(
+            merchantId,
+            rollupDate,
+            transaction.getCurrency(),
+            event.getToStatus().name(),
+            1,
+            transaction.getAmount()
+        );
+    }
+    
+    /**
+     * Folds pending deltas into the rollup table. Only one node folds at a
+     * time, so bucket rows are never upserted concurrently.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.rollup.fold-interval-ms:2000}")
+    @Transactional
+    public void foldDeltas() {
+        if (!rollupRepository.tryLock(FOLD_LOCK_KEY)) {
+            return;
+        }
+        int folded = rollupRepository.foldDeltas(foldBatchSize);
+        if (folded > 0) {
+            log.debug("Folded transaction rollup deltas into {} buckets", folded);
+        }
+    }
+    
+    /**
+     * Rebuilds all rollup rows for one day from the raw transactions table
+     * and drops that day's pending deltas. Holds the fold lock, so no deltas
+     * are folded into the day while it is being replaced.
+     */
+    @Transactional
+    public int rebuildDay(LocalDate day) {
+        rollupRepository.lock(FOLD_LOCK_KEY);
+        int deleted = rollupRepository.deleteByRollupDate(day);
+        int inserted = rollupRepository.aggregateFromTransactions(
+            day.atStartOfDay(),
+            day.plusDays(1).atStartOfDay()
+        );
+        log.info("Rebuilt transaction rollups for {}: {} rows replaced by {}", day, deleted, inserted);
+        return inserted;
+    }
+    
+    @Scheduled(cron = "${app.reports.reconciliation.cron:0 30 0 * * *}")
+    @Transactional
+    public void reconcilePreviousDay() {
+        rebuildDay(LocalDate.now().minusDays(1));
+    }
+}
+
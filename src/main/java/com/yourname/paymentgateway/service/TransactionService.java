@@ -1,159 +1,225 @@
 package com.yourname.paymentgateway.service;
 
+import com.yourname.paymentgateway.dto.request.BatchCreateTransactionRequest;
 import com.yourname.paymentgateway.dto.request.CreateTransactionRequest;
+import com.yourname.paymentgateway.dto.request.TransactionCursor;
+import com.yourname.paymentgateway.dto.response.BatchTransactionResponse;
+import com.yourname.paymentgateway.dto.response.CursorPagedResponse;
 import com.yourname.paymentgateway.dto.response.TransactionResponse;
 import com.yourname.paymentgateway.entity.Merchant;
 import com.yourname.paymentgateway.entity.Transaction;
 import com.yourname.paymentgateway.entity.TransactionHistory;
 import com.yourname.paymentgateway.enums.TransactionStatus;
-import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import com.yourname.paymentgateway.exception.DuplicateTransactionException;
 import com.yourname.paymentgateway.exception.TransactionNotFoundException;
+import com.yourname.paymentgateway.repository.MerchantRepository;
 import com.yourname.paymentgateway.repository.TransactionHistoryRepository;
 import com.yourname.paymentgateway.repository.TransactionRepository;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionService {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final String DUPLICATE_KEY_CONSTRAINT = "uq_transaction_keys_merchant_idempotency";
+    
     private final TransactionRepository transactionRepository;
+    private final MerchantRepository merchantRepository;
     private final TransactionHistoryRepository historyRepository;
+    private final TransactionAuditLog auditLog;
     private final IdempotencyService idempotencyService;
-    private final PaymentProcessorService paymentProcessor;
-    private final WebhookService webhookService;
+    private final PaymentProcessorClient processorClient;
+    private final PaymentTransitionService paymentTransitions;
+    private final PaymentQueueService paymentQueue;
+    private final PaymentMetrics paymentMetrics;
+    private final TransactionResponseCache responseCache;
     
     @Transactional
     public TransactionResponse createTransaction(
-        Merchant merchant,
+        AuthenticatedMerchant merchant,
         String idempotencyKey,
         CreateTransactionRequest request
     ) {
         log.info("Creating transaction for merchant: {}, idempotency key: {}", 
-                 merchant.getId(), idempotencyKey);
+                 merchant.id(), idempotencyKey);
+        Timer.Sample sample = paymentMetrics.startTimer();
         
         // Check for duplicate request
         var cachedResponse = idempotencyService.getCachedResponse(
-            merchant.getId(), 
+            merchant.id(), 
             idempotencyKey
         );
         if (cachedResponse != null) {
             log.info("Returning cached response for idempotency key: {}", idempotencyKey);
+            paymentMetrics.recordTransactionCreate(sample, true);
             return cachedResponse;
         }
         
         // Create new transaction
-        Transaction transaction = Transaction.builder()
-            .merchant(merchant)
-            .idempotencyKey(idempotencyKey)
-            .amount(request.getAmount())
-            .currency(request.getCurrency())
-            .paymentMethod(request.getPaymentMethod())
-            .description(request.getDescription())
-            .customerEmail(request.getCustomerEmail())
-            .customerName(request.getCustomerName())
-            .status(TransactionStatus.PENDING)
-            .build();
+        Transaction transaction = buildTransaction(merchantReference(merchant), idempotencyKey, request);
         
-        transaction = transactionRepository.save(transaction);
+        try {
+            transaction = transactionRepository.saveAndFlush(transaction);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateKeyOr(e, "Idempotency key already used: " + idempotencyKey);
+        }
         
         // Log initial state
         logStateChange(transaction, null, TransactionStatus.PENDING, "Transaction created");
         
-        // Asynchronously process payment
-        processPaymentAsync(transaction.getId());
+        // Enqueue payment processing in the same DB transaction
+        paymentQueue.enqueue(transaction);
         
         TransactionResponse response = mapToResponse(transaction);
         
         // Cache response for idempotency
         idempotencyService.cacheResponse(
-            merchant.getId(),
+            merchant.id(),
             idempotencyKey,
             response
         );
         
+        paymentMetrics.recordTransactionCreate(sample, false);
         return response;
     }
     
-    @Async
-    public void processPaymentAsync(Long transactionId) {
-        processPayment(transactionId);
-    }
-    
+    /**
+     * Creates many transactions in one DB transaction: a single idempotency
+     * lookup for all keys, then saveAll for transactions, history, queue jobs
+     * and idempotency rows. Repeated keys, within the batch or from earlier
+     * requests, return the stored response and are flagged as duplicates.
+     */
     @Transactional
-    @Retryable(
-        value = {PaymentProcessorException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 2000, multiplier = 2)
-    )
-    public void processPayment(Long transactionId) {
-        Transaction transaction = transactionRepository.findById(transactionId)
-            .orElseThrow(() -> new TransactionNotFoundException(transactionId));
+    public BatchTransactionResponse createTransactions(
+        AuthenticatedMerchant merchant,
+        List<BatchCreateTransactionRequest.Item> items
+    ) {
+        log.info("Creating batch of {} transactions for merchant: {}", items.size(), merchant.id());
         
-        try {
-            // Transition to PROCESSING
-            transaction.transitionTo(TransactionStatus.PROCESSING);
-            transactionRepository.save(transaction);
-            logStateChange(transaction, TransactionStatus.PENDING, 
-                          TransactionStatus.PROCESSING, "Payment processing started");
-            
-            // Call external payment processor (mock)
-            PaymentProcessorService.PaymentResult result = paymentProcessor.process(transaction);
-            
-            if (result.isSuccessful()) {
-                transaction.transitionTo(TransactionStatus.COMPLETED);
-                logStateChange(transaction, TransactionStatus.PROCESSING, 
-                              TransactionStatus.COMPLETED, "Payment successful");
-                
-                // Send webhook notification
-                webhookService.sendTransactionCompletedEvent(transaction);
-            } else {
-                transaction.transitionTo(TransactionStatus.FAILED);
-                logStateChange(transaction, TransactionStatus.PROCESSING, 
-                              TransactionStatus.FAILED, 
-                              "Payment failed: " + result.getErrorMessage());
-                
-                // Send webhook notification for failure
-                webhookService.sendTransactionFailedEvent(transaction);
+        Set<String> idempotencyKeys = items.stream()
+            .map(BatchCreateTransactionRequest.Item::getIdempotencyKey)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, TransactionResponse> cached = idempotencyService.getCachedResponses(
+            merchant.id(),
+            idempotencyKeys
+        );
+        
+        // First occurrence of each new key wins
+        Merchant merchantReference = merchantReference(merchant);
+        Map<String, Transaction> pending = new LinkedHashMap<>();
+        for (BatchCreateTransactionRequest.Item item : items) {
+            String key = item.getIdempotencyKey();
+            if (!cached.containsKey(key) && !pending.containsKey(key)) {
+                pending.put(key, buildTransaction(merchantReference, key, item));
+            }
+        }
+        
+        Map<String, TransactionResponse> created = new LinkedHashMap<>();
+        if (!pending.isEmpty()) {
+            List<Transaction> saved;
+            try {
+                saved = transactionRepository.saveAll(pending.values());
+                transactionRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateKeyOr(e, "Batch contains an idempotency key that was already used");
             }
             
-            transactionRepository.save(transaction);
+            auditLog.recordAll(saved.stream()
+                .map(transaction -> buildHistory(transaction, null, TransactionStatus.PENDING, "Transaction created"))
+                .collect(Collectors.toList()));
+            paymentQueue.enqueueAll(saved);
             
-        } catch (Exception e) {
-            log.error("Payment processing failed for transaction: {}", transactionId, e);
-            transaction.transitionTo(TransactionStatus.FAILED);
-            logStateChange(transaction, transaction.getStatus(), 
-                          TransactionStatus.FAILED, 
-                          "Exception: " + e.getMessage());
-            transactionRepository.save(transaction);
-            throw new PaymentProcessorException("Payment processing failed", e);
+            for (Transaction transaction : saved) {
+                created.put(transaction.getIdempotencyKey(), mapToResponse(transaction));
+            }
+            idempotencyService.cacheResponses(merchant.id(), created);
+        }
+        
+        Set<String> reported = new HashSet<>();
+        List<BatchTransactionResponse.ItemResult> results = new ArrayList<>(items.size());
+        for (BatchCreateTransactionRequest.Item item : items) {
+            String key = item.getIdempotencyKey();
+            boolean isNew = created.containsKey(key) && reported.add(key);
+            results.add(BatchTransactionResponse.ItemResult.builder()
+                .idempotencyKey(key)
+                .duplicate(!isNew)
+                .transaction(isNew ? created.get(key) : cached.getOrDefault(key, created.get(key)))
+                .build());
+        }
+        
+        return BatchTransactionResponse.builder()
+            .results(results)
+            .build();
+    }
+    
+    /**
+     * Runs the processor call outside any DB transaction: a short transaction
+     * claims the payment, the processor call holds neither a connection nor
+     * a thread, and a second short transaction records the outcome when the
+     * future completes. Transport errors and timeouts complete the returned
+     * future exceptionally and leave the payment in PROCESSING, so the queue
+     * can retry it or give up through {@link #failPayment}.
+     */
+    public CompletableFuture<Void> processPayment(Long transactionId, LocalDateTime createdAt) {
+        Optional<Transaction> claimed = paymentTransitions.startProcessing(transactionId, createdAt);
+        if (claimed.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
         }
+        
+        return paymentMetrics.timeProcessorCall("charge", () -> processorClient.charge(claimed.get()))
+            .thenAccept(result -> paymentTransitions.completeProcessing(transactionId, createdAt, result));
+    }
+    
+    /**
+     * Marks a payment FAILED once the queue has given up on it.
+     */
+    public void failPayment(Long transactionId, LocalDateTime createdAt, String reason) {
+        paymentTransitions.fail(transactionId, createdAt, reason);
     }
     
     @Transactional(readOnly = true)
-    public TransactionResponse getTransaction(Merchant merchant, UUID transactionId) {
-        Transaction transaction = transactionRepository
-            .findByMerchantAndTransactionId(merchant, transactionId)
+    public TransactionResponse getTransaction(AuthenticatedMerchant merchant, UUID transactionId) {
+        TransactionResponse cached = responseCache.get(merchant.id(), transactionId);
+        if (cached != null) {
+            return cached;
+        }
+        
+        TransactionResponse response = transactionRepository
+            .findResponseByMerchantIdAndTransactionId(merchant.id(), transactionId)
             .orElseThrow(() -> new TransactionNotFoundException(transactionId));
         
-        return mapToResponse(transaction);
+        responseCache.putIfFinal(merchant.id(), response);
+        return response;
     }
     
     @Transactional(readOnly = true)
     public Page<TransactionResponse> listTransactions(
-        Merchant merchant,
+        AuthenticatedMerchant merchant,
         String status,
         String startDate,
         String endDate,
@@ -164,14 +230,55 @@ public class TransactionService {
         LocalDateTime end = endDate != null ? LocalDateTime.parse(endDate) : null;
         
         return transactionRepository.findByMerchantAndFilters(
-            merchant, statusEnum, start, end, pageable
+            merchant.id(), statusEnum, start, end, pageable
         ).map(this::mapToResponse);
     }
     
+    /**
+     * Keyset pagination over (created_at, id). Cost per page stays constant
+     * however deep the client reads, and no total count is computed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<TransactionResponse> listTransactionsByCursor(
+        AuthenticatedMerchant merchant,
+        String status,
+        String startDate,
+        String endDate,
+        String cursor,
+        int size
+    ) {
+        TransactionStatus statusEnum = status != null ? TransactionStatus.valueOf(status) : null;
+        LocalDateTime start = startDate != null ? LocalDateTime.parse(startDate) : null;
+        LocalDateTime end = endDate != null ? LocalDateTime.parse(endDate) : null;
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        
+        // One extra row tells us whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findKeysetFirstPage(merchant.id(), statusEnum, start, end, limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findKeysetPageAfter(
+                merchant.id(), statusEnum, start, end, after.createdAt(), after.id(), limit
+            );
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? TransactionCursor.after(page.get(pageSize - 1)).encode() : null;
+        
+        return CursorPagedResponse.of(
+            page.stream().map(this::mapToResponse).collect(Collectors.toList()),
+            pageSize,
+            nextCursor
+        );
+    }
+    
     @Transactional(readOnly = true)
-    public List<TransactionHistory> getTransactionHistory(Merchant merchant, UUID transactionId) {
+    public List<TransactionHistory> getTransactionHistory(AuthenticatedMerchant merchant, UUID transactionId) {
         Transaction transaction = transactionRepository
-            .findByMerchantAndTransactionId(merchant, transactionId)
+            .findByMerchantIdAndTransactionId(merchant.id(), transactionId)
             .orElseThrow(() -> new TransactionNotFoundException(transactionId));
         
         return historyRepository.findByTransactionOrderByChangedAtAsc(transaction);
@@ -181,18 +288,63 @@ public class TransactionService {
                                 TransactionStatus fromStatus,
                                 TransactionStatus toStatus, 
                                 String reason) {
-        TransactionHistory history = TransactionHistory.builder()
+        auditLog.record(buildHistory(transaction, fromStatus, toStatus, reason));
+    }
+    
+    private TransactionHistory buildHistory(Transaction transaction,
+                                            TransactionStatus fromStatus,
+                                            TransactionStatus toStatus,
+                                            String reason) {
+        return TransactionHistory.builder()
             .transaction(transaction)
             .fromStatus(fromStatus)
             .toStatus(toStatus)
             .reason(reason)
             .changedBy("SYSTEM")
             .build();
-        
-        historyRepository.save(history);
     }
     
-    private TransactionResponse mapToResponse(Transaction transaction) {
+    /**
+     * transaction_keys rejects a key whose cached response has already
+     * expired, or one a concurrent request committed first. Flushing the
+     * insert surfaces that as a 409 instead of a failed commit.
+     */
+    private RuntimeException duplicateKeyOr(DataIntegrityViolationException e, String message) {
+        if (e.getCause() instanceof ConstraintViolationException violation
+                && DUPLICATE_KEY_CONSTRAINT.equals(violation.getConstraintName())) {
+            return new DuplicateTransactionException(message, e);
+        }
+        return e;
+    }
+    
+    /**
+     * The authenticated merchant is a cached snapshot; new rows reference the
+     * merchant through a proxy for its id, which needs no query.
+     */
+    private Merchant merchantReference(AuthenticatedMerchant merchant) {
+        return merchantRepository.getReferenceById(merchant.id());
+    }
+    
+    private Transaction buildTransaction(
+        Merchant merchant,
+        String idempotencyKey,
+        CreateTransactionRequest request
+    ) {
+        return Transaction.builder()
+            .merchant(merchant)
+            .idempotencyKey(idempotencyKey)
+            .amount(request.getAmount())
+            .currency(request.getCurrency())
+            .paymentMethod(request.getPaymentMethod())
+            .description(request.getDescription())
+            .customerEmail(request.getCustomerEmail())
+            .customerName(request.getCustomerName())
+            .status(TransactionStatus.PENDING)
+            .build();
+    }
+    
+    // Package-private for TransactionServiceBenchmark
+    TransactionResponse mapToResponse(Transaction transaction) {
         return TransactionResponse.builder()
             .transactionId(transaction.getTransactionId())
             .amount(transaction.getAmount())
@@ -0,0 +1,215 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.repository.MerchantRepository;
+import com.yourname.paymentgateway.service.WebhookService.ClaimedEvent;
+import com.yourname.paymentgateway.service.WebhookService.DeliveryOutcome;
+import com.yourname.paymentgateway.util.SignatureUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Relay for the webhook outbox: delivers committed webhook_events rows over a
+ * non-blocking HTTP client, working only on immutable snapshots of the
+ * claimed events and their merchants' endpoints. Each merchant gets a small
+ * in-flight budget, so a slow endpoint only holds up its own events while the
+ * rest of the batch keeps flowing; a batch never holds more of one merchant's
+ * events than that budget. Outcomes are collected from the HTTP callbacks and
+ * written back in bulk on the next poll.
+ */
+@Component
+@Slf4j
+public class WebhookDispatcher {
+    
+    private final WebhookService webhookService;
+    private final MerchantRepository merchantRepository;
+    private final HttpClient httpClient;
+    private final PaymentMetrics paymentMetrics;
+    private final Semaphore inFlight;
+    private final Map<Long, Semaphore> merchantSlots = new ConcurrentHashMap<>();
+    private final Queue<DeliveryOutcome> outcomes = new ConcurrentLinkedQueue<>();
+    private final int perMerchantInFlight;
+    private final int batchSize;
+    private final Duration requestTimeout;
+    
+    public WebhookDispatcher(
+        WebhookService webhookService,
+        MerchantRepository merchantRepository,
+        @Qualifier("webhookHttpClient") HttpClient httpClient,
+        PaymentMetrics paymentMetrics,
+        @Value("${app.webhook.delivery.max-in-flight:200}") int maxInFlight,
+        @Value("${app.webhook.delivery.per-merchant-in-flight:4}") int perMerchantInFlight,
+        @Value("${app.webhook.delivery.batch-size:100}") int batchSize,
+        @Value("${app.webhook.delivery.request-timeout-ms:10000}") long requestTimeoutMs
+    ) {
+        this.webhookService = webhookService;
+        this.merchantRepository = merchantRepository;
+        this.httpClient = httpClient;
+        this.paymentMetrics = paymentMetrics;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.perMerchantInFlight = perMerchantInFlight;
+        this.batchSize = batchSize;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.webhook.delivery.poll-interval-ms:1000}")
+    public void poll() {
+        flushOutcomes();
+        evictIdleSlots();
+        
+        int capacity = Math.min(batchSize, inFlight.availablePermits());
+        if (capacity == 0) {
+            return;
+        }
+        
+        List<ClaimedEvent> events = webhookService.claimDueEvents(capacity, perMerchantInFlight);
+        if (events.isEmpty()) {
+            return;
+        }
+        
+        // One merchant lookup per batch instead of one per event
+        Set<Long> merchantIds = events.stream().map(ClaimedEvent::merchantId).collect(Collectors.toSet());
+        Map<Long, Endpoint> endpoints = merchantRepository.findAllById(merchantIds).stream()
+            .filter(merchant -> merchant.getWebhookUrl() != null)
+            .collect(Collectors.toMap(Merchant::getId, Endpoint::of));
+        
+        List<Long> deferred = new ArrayList<>();
+        for (ClaimedEvent event : events) {
+            Endpoint endpoint = endpoints.get(event.merchantId());
+            if (endpoint == null) {
+                paymentMetrics.recordWebhookSkipped();
+                outcomes.add(DeliveryOutcome.giveUp(event.id(), "No webhook URL configured"));
+                continue;
+            }
+            
+            Semaphore slot = merchantSlots.computeIfAbsent(event.merchantId(), id -> new Semaphore(perMerchantInFlight));
+            if (!slot.tryAcquire()) {
+                deferred.add(event.id());
+                continue;
+            }
+            if (!inFlight.tryAcquire()) {
+                slot.release();
+                deferred.add(event.id());
+                continue;
+            }
+            
+            dispatch(event, endpoint, slot);
+        }
+        
+        if (!deferred.isEmpty()) {
+            webhookService.releaseClaims(deferred);
+        }
+    }
+    
+    private void dispatch(ClaimedEvent event, Endpoint endpoint, Semaphore slot) {
+        HttpRequest request;
+        try {
+            request = buildRequest(event, endpoint);
+        } catch (RuntimeException e) {
+            release(slot);
+            outcomes.add(DeliveryOutcome.giveUp(event.id(), "Invalid webhook request: " + e.getMessage()));
+            return;
+        }
+        
+        long start = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                release(slot);
+                long elapsed = System.nanoTime() - start;
+                if (error != null) {
+                    log.warn("Webhook {} to merchant {} failed: {}", event.id(), event.merchantId(), error.getMessage());
+                    paymentMetrics.recordWebhookDelivery(elapsed, "error");
+                    outcomes.add(DeliveryOutcome.retry(event.id(), error.getMessage()));
+                } else if (response.statusCode() / 100 == 2) {
+                    paymentMetrics.recordWebhookDelivery(elapsed, "delivered");
+                    outcomes.add(DeliveryOutcome.success(event.id()));
+                } else {
+                    paymentMetrics.recordWebhookDelivery(elapsed, "rejected");
+                    outcomes.add(DeliveryOutcome.retry(event.id(), "HTTP " + response.statusCode()));
+                }
+            });
+    }
+    
+    private HttpRequest buildRequest(ClaimedEvent event, Endpoint endpoint) {
+        String payload = event.payload();
+        String signature = SignatureUtil.generateHmacSignature(payload, endpoint.secret());
+        
+        return HttpRequest.newBuilder(URI.create(endpoint.url()))
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .header("X-Webhook-Signature", signature)
+            .header("X-Webhook-Event", event.eventType().name())
+            .header("X-Webhook-Id", String.valueOf(event.id()))
+            .POST(HttpRequest.BodyPublishers.ofString(payload))
+            .build();
+    }
+    
+    private void release(Semaphore slot) {
+        slot.release();
+        inFlight.release();
+    }
+    
+    /**
+     * Drops the slots of merchants with nothing in flight. Only poll()
+     * acquires slots, so a slot with every permit free has no holder left
+     * that could release into it after removal.
+     */
+    private void evictIdleSlots() {
+        merchantSlots.values().removeIf(slot -> slot.availablePermits() >= perMerchantInFlight);
+    }
+    
+    /**
+     * Webhook settings copied out of the merchant entity for the callbacks.
+     */
+    private record Endpoint(String url, String secret) {
+        
+        static Endpoint of(Merchant merchant) {
+            return new Endpoint(
+                merchant.getWebhookUrl(),
+                merchant.getWebhookSecret() != null ? merchant.getWebhookSecret() : "default-secret"
+            );
+        }
+    }
+    
+    /**
+     * Writes all completed deliveries back in one transaction. If the write
+     * fails, the events stay leased and are redelivered once the lease expires.
+     */
+    @PreDestroy
+    public void flushOutcomes() {
+        List<DeliveryOutcome> batch = new ArrayList<>();
+        DeliveryOutcome outcome;
+        while ((outcome = outcomes.poll()) != null) {
+            batch.add(outcome);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        try {
+            webhookService.recordOutcomes(batch);
+        } catch (Exception e) {
+            log.error("Failed to record {} webhook outcomes", batch.size(), e);
+        }
+    }
+}
+
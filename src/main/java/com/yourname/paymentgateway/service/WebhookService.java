@@ -1,27 +1,23 @@
 package com.yourname.paymentgateway.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.yourname.paymentgateway.entity.Merchant;
 import com.yourname.paymentgateway.entity.Refund;
 import com.yourname.paymentgateway.entity.Transaction;
 import com.yourname.paymentgateway.entity.WebhookEvent;
-import com.yourname.paymentgateway.repository.MerchantRepository;
 import com.yourname.paymentgateway.repository.WebhookEventRepository;
-import com.yourname.paymentgateway.util.SignatureUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,9 +25,7 @@ import java.util.Map;
 public class WebhookService {
     
     private final WebhookEventRepository webhookEventRepository;
-    private final MerchantRepository merchantRepository;
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate;
     
     @Value("${payment.webhook.retry.max-attempts:5}")
     private int maxAttempts;
@@ -42,143 +36,139 @@ public class WebhookService {
     @Value("${payment.webhook.retry.multiplier:2}")
     private long multiplier;
     
-    @Async
-    @Transactional
+    @Value("${app.webhook.delivery.lease-seconds:60}")
+    private long leaseSeconds;
+    
+    /**
+     * Writes a TRANSACTION_COMPLETED event to the outbox in the caller's
+     * transaction, so it commits or rolls back with the status change.
+     * WebhookDispatcher delivers it after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendTransactionCompletedEvent(Transaction transaction) {
-        Merchant merchant = transaction.getMerchant();
-        if (merchant.getWebhookUrl() == null) {
-            log.debug("No webhook URL configured for merchant: {}", merchant.getId());
-            return;
-        }
-        
-        createAndSendWebhook(
-            merchant,
-            transaction.getId(),
+        writeOutboxEvent(
+            transaction,
             WebhookEvent.WebhookEventType.TRANSACTION_COMPLETED,
-            buildTransactionPayload(transaction)
+            buildTransactionPayload(transaction, "transaction.completed")
         );
     }
     
-    @Async
-    @Transactional
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendTransactionFailedEvent(Transaction transaction) {
-        Merchant merchant = transaction.getMerchant();
-        if (merchant.getWebhookUrl() == null) {
-            return;
-        }
-        
-        createAndSendWebhook(
-            merchant,
-            transaction.getId(),
+        writeOutboxEvent(
+            transaction,
             WebhookEvent.WebhookEventType.TRANSACTION_FAILED,
-            buildTransactionPayload(transaction)
+            buildTransactionPayload(transaction, "transaction.failed")
         );
     }
     
-    @Async
-    @Transactional
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendRefundCompletedEvent(Refund refund) {
         Transaction transaction = refund.getTransaction();
-        Merchant merchant = transaction.getMerchant();
-        if (merchant.getWebhookUrl() == null) {
-            return;
-        }
-        
-        createAndSendWebhook(
-            merchant,
-            transaction.getId(),
+        writeOutboxEvent(
+            transaction,
             WebhookEvent.WebhookEventType.REFUND_COMPLETED,
             buildRefundPayload(refund)
         );
     }
     
+    /**
+     * Only ids, the transaction's created_at (its partition key) and the
+     * serialized payload are stored; the merchant's webhook URL is resolved
+     * by the dispatcher, once per batch. Events of merchants without a URL
+     * are dropped there.
+     */
     @SneakyThrows
-    private void createAndSendWebhook(
-        Merchant merchant,
-        Long transactionId,
+    private void writeOutboxEvent(
+        Transaction transaction,
         WebhookEvent.WebhookEventType eventType,
         Map<String, Object> payload
     ) {
-        String payloadJson = objectMapper.writeValueAsString(payload);
-        
         WebhookEvent webhookEvent = WebhookEvent.builder()
-            .merchantId(merchant.getId())
-            .transactionId(transactionId)
+            .merchantId(transaction.getMerchant().getId())
+            .transactionId(transaction.getId())
+            .transactionCreatedAt(transaction.getCreatedAt())
             .eventType(eventType)
-            .payload(payloadJson)
+            .payload(objectMapper.writeValueAsString(payload))
             .status(WebhookEvent.WebhookStatus.PENDING)
             .maxAttempts(maxAttempts)
-            .nextRetryAt(LocalDateTime.now().plusSeconds(initialDelay / 1000))
+            .nextRetryAt(LocalDateTime.now())
             .build();
         
-        webhookEvent = webhookEventRepository.save(webhookEvent);
+        webhookEventRepository.save(webhookEvent);
+    }
+    
+    /**
+     * Claims a batch of due events. Claimed rows are leased by pushing
+     * next_retry_at past the delivery timeout, so a crashed node's events
+     * are picked up again once the lease runs out. No merchant gets more
+     * than {@code perMerchantLimit} events in one batch.
+     */
+    @Transactional
+    public List<ClaimedEvent> claimDueEvents(int limit, int perMerchantLimit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WebhookEvent> events = webhookEventRepository.findDueForDelivery(now, limit, perMerchantLimit);
+        
+        for (WebhookEvent event : events) {
+            event.setNextRetryAt(now.plusSeconds(leaseSeconds));
+        }
         
-        sendWebhook(webhookEvent);
+        return webhookEventRepository.saveAll(events).stream()
+            .map(ClaimedEvent::of)
+            .collect(Collectors.toList());
     }
     
-    @SneakyThrows
-    private void sendWebhook(WebhookEvent webhookEvent) {
-        Merchant merchant = merchantRepository.findById(webhookEvent.getMerchantId())
-            .orElseThrow(() -> new RuntimeException("Merchant not found"));
+    /**
+     * Hands claimed events back without counting an attempt.
+     */
+    @Transactional
+    public void releaseClaims(List<Long> eventIds) {
+        webhookEventRepository.rescheduleAll(eventIds, LocalDateTime.now());
+    }
+    
+    /**
+     * Persists a batch of delivery outcomes: one UPDATE for all successes,
+     * and a batched update of the failed rows with their retry schedule.
+     */
+    @Transactional
+    public void recordOutcomes(List<DeliveryOutcome> outcomes) {
+        LocalDateTime now = LocalDateTime.now();
         
-        if (merchant.getWebhookUrl() == null) {
-            webhookEvent.setStatus(WebhookEvent.WebhookStatus.FAILED);
-            webhookEvent.setLastError("No webhook URL configured");
-            webhookEventRepository.save(webhookEvent);
+        List<Long> delivered = outcomes.stream()
+            .filter(DeliveryOutcome::delivered)
+            .map(DeliveryOutcome::eventId)
+            .collect(Collectors.toList());
+        if (!delivered.isEmpty()) {
+            webhookEventRepository.markDelivered(delivered, WebhookEvent.WebhookStatus.SENT, now);
+        }
+        
+        Map<Long, DeliveryOutcome> failures = outcomes.stream()
+            .filter(outcome -> !outcome.delivered())
+            .collect(Collectors.toMap(DeliveryOutcome::eventId, outcome -> outcome, (first, second) -> second));
+        if (failures.isEmpty()) {
             return;
         }
         
-        try {
-            String payload = webhookEvent.getPayload();
-            String signature = SignatureUtil.generateHmacSignature(
-                payload,
-                merchant.getWebhookSecret() != null ? merchant.getWebhookSecret() : "default-secret"
-            );
-            
-            // In a real implementation, you would make HTTP POST request
-            // For now, we'll just log it
-            log.info("Sending webhook to {} for event type: {}", 
-                merchant.getWebhookUrl(), webhookEvent.getEventType());
-            
-            // Simulate webhook call
-            // restTemplate.postForObject(merchant.getWebhookUrl(), payload, String.class);
-            
-            webhookEvent.setStatus(WebhookEvent.WebhookStatus.SENT);
-            webhookEvent.setSentAt(LocalDateTime.now());
+        List<WebhookEvent> failedEvents = webhookEventRepository.findAllById(failures.keySet());
+        for (WebhookEvent webhookEvent : failedEvents) {
+            DeliveryOutcome outcome = failures.get(webhookEvent.getId());
             webhookEvent.setAttemptCount(webhookEvent.getAttemptCount() + 1);
+            webhookEvent.setLastError(outcome.error());
             
-        } catch (Exception e) {
-            log.error("Failed to send webhook: {}", webhookEvent.getId(), e);
-            webhookEvent.setAttemptCount(webhookEvent.getAttemptCount() + 1);
-            webhookEvent.setLastError(e.getMessage());
-            
-            if (webhookEvent.getAttemptCount() >= webhookEvent.getMaxAttempts()) {
+            if (!outcome.retryable() || webhookEvent.getAttemptCount() >= webhookEvent.getMaxAttempts()) {
                 webhookEvent.setStatus(WebhookEvent.WebhookStatus.FAILED);
             } else {
                 long delay = (long) (initialDelay * Math.pow(multiplier, webhookEvent.getAttemptCount() - 1));
-                webhookEvent.setNextRetryAt(LocalDateTime.now().plusSeconds(delay / 1000));
+                webhookEvent.setNextRetryAt(now.plusSeconds(delay / 1000));
             }
         }
         
-        webhookEventRepository.save(webhookEvent);
-    }
-    
-    @Scheduled(fixedDelay = 60000) // Run every minute
-    @Transactional
-    public void retryFailedWebhooks() {
-        List<WebhookEvent> pendingWebhooks = webhookEventRepository.findPendingWebhooksForRetry(
-            WebhookEvent.WebhookStatus.PENDING,
-            LocalDateTime.now()
-        );
-        
-        for (WebhookEvent webhook : pendingWebhooks) {
-            sendWebhook(webhook);
-        }
+        webhookEventRepository.saveAll(failedEvents);
     }
     
-    private Map<String, Object> buildTransactionPayload(Transaction transaction) {
+    private Map<String, Object> buildTransactionPayload(Transaction transaction, String eventType) {
         Map<String, Object> payload = new HashMap<>();
-        payload.put("eventType", "transaction.completed");
+        payload.put("eventType", eventType);
         payload.put("transactionId", transaction.getTransactionId());
         payload.put("amount", transaction.getAmount());
         payload.put("currency", transaction.getCurrency());
@@ -197,5 +187,30 @@ public class WebhookService {
         payload.put("timestamp", LocalDateTime.now());
         return payload;
     }
+    
+    /**
+     * Immutable copy of a claimed event, safe to hand to HTTP callback threads.
+     */
+    public record ClaimedEvent(Long id, Long merchantId, WebhookEvent.WebhookEventType eventType, String payload) {
+        
+        static ClaimedEvent of(WebhookEvent event) {
+            return new ClaimedEvent(event.getId(), event.getMerchantId(), event.getEventType(), event.getPayload());
+        }
+    }
+    
+    public record DeliveryOutcome(Long eventId, boolean delivered, boolean retryable, String error) {
+        
+        public static DeliveryOutcome success(Long eventId) {
+            return new DeliveryOutcome(eventId, true, false, null);
+        }
+        
+        public static DeliveryOutcome retry(Long eventId, String error) {
+            return new DeliveryOutcome(eventId, false, true, error);
+        }
+        
+        public static DeliveryOutcome giveUp(Long eventId, String error) {
+            return new DeliveryOutcome(eventId, false, false, error);
+        }
+    }
 }
 
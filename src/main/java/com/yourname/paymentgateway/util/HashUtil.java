@@ -6,22 +6,33 @@ import java.security.NoSuchAlgorithmException;
 
 public class HashUtil {
     
-    public static String sha256(String input) {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    // MessageDigest is not thread-safe; digest() resets it for the next call
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("SHA-256 algorithm not available", e);
         }
+    });
+    
+    public static String sha256(String input) {
+        byte[] hash = SHA256.get().digest(input.getBytes(StandardCharsets.UTF_8));
+        return toHex(hash);
+    }
+    
+    /**
+     * Lower-case hex encoding through a lookup table, one char array per call.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int value = bytes[i] & 0xff;
+            chars[i * 2] = HEX_DIGITS[value >>> 4];
+            chars[i * 2 + 1] = HEX_DIGITS[value & 0x0f];
+        }
+        return new String(chars);
     }
 }
 
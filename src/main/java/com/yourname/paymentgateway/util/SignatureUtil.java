@@ -1,39 +1,43 @@
 package com.yourname.paymentgateway.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 public class SignatureUtil {
     
     private static final String HMAC_SHA256 = "HmacSHA256";
     
+    /**
+     * One initialised Mac per merchant secret, used only as a prototype: each
+     * signature works on a clone(), which copies the keyed state instead of
+     * re-running init() for the secret. Keyed by the secret itself, so a
+     * rotated secret simply misses and the old entry ages out.
+     */
+    private static final Cache<String, Mac> KEYED_MACS = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .build();
+    
     /**
      * Generates HMAC-SHA256 signature for webhook payload.
      * 
      * @param payload The JSON payload to sign
      * @param secret The secret key for HMAC
-     * @return Base64 encoded signature
+     * @return Hex encoded signature
      */
     public static String generateHmacSignature(String payload, String secret) {
-        try {
-            Mac mac = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(
-                secret.getBytes(StandardCharsets.UTF_8),
-                HMAC_SHA256
-            );
-            mac.init(secretKeySpec);
-            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(hash);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new RuntimeException("Failed to generate HMAC signature", e);
-        }
+        byte[] hash = macFor(secret).doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return HashUtil.toHex(hash);
     }
     
     /**
-     * Verifies HMAC signature.
+     * Verifies HMAC signature in constant time.
      * 
      * @param payload The JSON payload
      * @param signature The signature to verify
@@ -41,20 +45,34 @@ public class SignatureUtil {
      * @return true if signature is valid
      */
     public static boolean verifySignature(String payload, String signature, String secret) {
+        if (signature == null) {
+            return false;
+        }
         String expectedSignature = generateHmacSignature(payload, secret);
-        return expectedSignature.equals(signature);
+        return MessageDigest.isEqual(
+            expectedSignature.getBytes(StandardCharsets.US_ASCII),
+            signature.getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+    
+    private static Mac macFor(String secret) {
+        Mac prototype = KEYED_MACS.get(secret, SignatureUtil::initMac);
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // Provider without clone support: key a fresh instance instead
+            return initMac(secret);
+        }
     }
     
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : bytes) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
+    private static Mac initMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256));
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new RuntimeException("Failed to generate HMAC signature", e);
         }
-        return hexString.toString();
     }
 }
 
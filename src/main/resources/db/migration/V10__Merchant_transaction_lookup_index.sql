@@ -0,0 +1,11 @@
+-- =====================================================
+-- SINGLE-TRANSACTION LOOKUP INDEX
+-- =====================================================
+-- GET /transactions/{id} always filters on (merchant_id, transaction_id).
+-- A unique index on a partitioned table must contain the partition key, so
+-- created_at trails the pair: lookups seek on the leading two columns, and
+-- as with transaction_id in V8 the pair is unique in practice rather than
+-- enforced across partitions. idx_transaction_id stays for lookups by UUID
+-- without a merchant.
+CREATE UNIQUE INDEX idx_transactions_merchant_transaction
+    ON transactions(merchant_id, transaction_id, created_at);
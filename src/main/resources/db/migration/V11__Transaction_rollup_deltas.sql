@@ -0,0 +1,20 @@
+-- =====================================================
+-- TRANSACTION_ROLLUP_DELTAS (Append-only rollup changes)
+-- =====================================================
+-- Status changes append their rollup deltas here inside the payment
+-- transaction instead of upserting the shared (merchant, day, currency,
+-- status) row, which serialized a merchant's concurrent payments on its
+-- row lock. TransactionRollupService folds the deltas into
+-- transaction_daily_rollups every few seconds, one node at a time.
+CREATE TABLE transaction_rollup_deltas (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    rollup_date DATE NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    count_delta BIGINT NOT NULL,
+    amount_delta DECIMAL(19, 4) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_rollup_deltas_date ON transaction_rollup_deltas(rollup_date);
@@ -0,0 +1,17 @@
+-- =====================================================
+-- REFUNDS (Processing lease)
+-- =====================================================
+-- A claimed refund holds PROCESSING only until locked_until. If the node
+-- dies after the claim, or recording the outcome fails, RefundProcessor
+-- claims the refund again once the lease has passed and repeats the
+-- processor call under the same Idempotency-Key (the refund UUID), so the
+-- processor answers from its earlier attempt instead of paying twice.
+ALTER TABLE refunds
+    ADD COLUMN attempt_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN locked_until TIMESTAMP,
+    ADD COLUMN last_error TEXT;
+
+CREATE INDEX idx_refunds_processing_lease ON refunds(locked_until) WHERE status = 'PROCESSING';
+
+-- Refunds stuck in PROCESSING before this migration are re-driven right away
+UPDATE refunds SET locked_until = CURRENT_TIMESTAMP WHERE status = 'PROCESSING';
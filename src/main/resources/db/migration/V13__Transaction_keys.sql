@@ -0,0 +1,78 @@
+-- =====================================================
+-- TRANSACTION_KEYS (Unpartitioned identity of every transaction)
+-- =====================================================
+-- V8 had to drop the unique constraints on transaction_id and
+-- (merchant_id, idempotency_key) and every foreign key to transactions,
+-- because constraints on a partitioned table must include created_at.
+-- idempotency_cache did not replace them: ExpirySweeper deletes its rows
+-- after their TTL, after which a reused key would create a second charge.
+--
+-- This table restores the guarantees. It holds one row per transaction,
+-- written by a trigger in the same DB transaction as the insert, so a
+-- duplicate key aborts the insert itself. Child tables reference it instead
+-- of transactions(id). Rows outlive retired partitions, so keys stay unique
+-- and child rows stay valid after retention detaches a month.
+CREATE TABLE transaction_keys (
+    id BIGINT PRIMARY KEY,
+    transaction_id UUID NOT NULL,
+    merchant_id BIGINT NOT NULL REFERENCES merchants(id) ON DELETE RESTRICT,
+    idempotency_key VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT uq_transaction_keys_transaction_id UNIQUE (transaction_id),
+    CONSTRAINT uq_transaction_keys_merchant_idempotency UNIQUE (merchant_id, idempotency_key)
+);
+
+CREATE OR REPLACE FUNCTION register_transaction_key()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO transaction_keys (id, transaction_id, merchant_id, idempotency_key, created_at)
+    VALUES (NEW.id, NEW.transaction_id, NEW.merchant_id, NEW.idempotency_key, NEW.created_at);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Created on the partitioned table, so every current and future partition has it
+CREATE TRIGGER register_transaction_key
+    AFTER INSERT ON transactions
+    FOR EACH ROW
+    EXECUTE FUNCTION register_transaction_key();
+
+-- Fails the migration if duplicates slipped in while the constraints were
+-- missing; those have to be resolved by hand before it can run
+INSERT INTO transaction_keys (id, transaction_id, merchant_id, idempotency_key, created_at)
+SELECT id, transaction_id, merchant_id, idempotency_key, created_at
+FROM transactions;
+
+-- Same ON DELETE actions as the original foreign keys to transactions(id).
+-- Added NOT VALID so they are enforced for new rows without a long scan
+-- under lock, then validated below.
+ALTER TABLE transaction_history
+    ADD CONSTRAINT transaction_history_transaction_id_fkey
+    FOREIGN KEY (transaction_id) REFERENCES transaction_keys(id) ON DELETE CASCADE NOT VALID;
+ALTER TABLE refunds
+    ADD CONSTRAINT refunds_transaction_id_fkey
+    FOREIGN KEY (transaction_id) REFERENCES transaction_keys(id) ON DELETE RESTRICT NOT VALID;
+ALTER TABLE webhook_events
+    ADD CONSTRAINT webhook_events_transaction_id_fkey
+    FOREIGN KEY (transaction_id) REFERENCES transaction_keys(id) ON DELETE SET NULL NOT VALID;
+ALTER TABLE payment_jobs
+    ADD CONSTRAINT payment_jobs_transaction_id_fkey
+    FOREIGN KEY (transaction_id) REFERENCES transaction_keys(id) ON DELETE CASCADE NOT VALID;
+
+-- Rows of partitions retired before this migration have no key row; their
+-- children cannot be validated and keep the constraint NOT VALID (still
+-- enforced for every new row) until they are cleaned up.
+DO $$
+DECLARE
+    child TEXT;
+BEGIN
+    FOREACH child IN ARRAY ARRAY['transaction_history', 'refunds', 'webhook_events', 'payment_jobs'] LOOP
+        BEGIN
+            EXECUTE format('ALTER TABLE %I VALIDATE CONSTRAINT %I', child, child || '_transaction_id_fkey');
+        EXCEPTION WHEN foreign_key_violation THEN
+            RAISE WARNING '% references retired transactions; % left NOT VALID',
+                child, child || '_transaction_id_fkey';
+        END;
+    END LOOP;
+END $$;
@@ -0,0 +1,11 @@
+-- =====================================================
+-- DROP REDUNDANT TRANSACTION_ID INDEX
+-- =====================================================
+-- V10 kept idx_transaction_id for lookups by UUID without a merchant. No
+-- application query does that: every read of transactions is merchant
+-- scoped and served by idx_transactions_merchant_transaction, and
+-- transaction_keys (V13) holds transaction_id uniquely for resolving a bare
+-- UUID. The index only cost a write per insert, and for merchant-scoped
+-- lookups it tied with the merchant index in the planner's cost model, so
+-- either could be picked depending on the statistics.
+DROP INDEX IF EXISTS idx_transaction_id;
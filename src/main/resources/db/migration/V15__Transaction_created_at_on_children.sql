@@ -0,0 +1,37 @@
+-- =====================================================
+-- TRANSACTION CREATED_AT ON CHILD ROWS (Partition pruning)
+-- =====================================================
+-- transactions is partitioned on created_at (V8), so a lookup or row lock
+-- by id alone probes the index of every partition, and retention keeps
+-- partitions forever by default. Queue jobs, refunds and outbox events
+-- therefore carry their transaction's created_at, and the payment and
+-- refund paths look the transaction up by (id, created_at), which the
+-- planner prunes to a single partition.
+ALTER TABLE payment_jobs ADD COLUMN transaction_created_at TIMESTAMP;
+ALTER TABLE refunds ADD COLUMN transaction_created_at TIMESTAMP;
+-- Nullable like transaction_id, which ON DELETE SET NULL may clear
+ALTER TABLE webhook_events ADD COLUMN transaction_created_at TIMESTAMP;
+
+-- transaction_keys (V13) is unpartitioned and holds created_at for every
+-- transaction. Rows of transactions retired before V13 have no key row;
+-- they fall back to their own created_at, and their transaction can no
+-- longer be found either way.
+UPDATE payment_jobs j
+SET transaction_created_at = COALESCE(k.created_at, j.created_at)
+FROM payment_jobs j2
+LEFT JOIN transaction_keys k ON k.id = j2.transaction_id
+WHERE j2.id = j.id;
+
+UPDATE refunds r
+SET transaction_created_at = COALESCE(k.created_at, r.created_at)
+FROM refunds r2
+LEFT JOIN transaction_keys k ON k.id = r2.transaction_id
+WHERE r2.id = r.id;
+
+UPDATE webhook_events w
+SET transaction_created_at = k.created_at
+FROM transaction_keys k
+WHERE k.id = w.transaction_id;
+
+ALTER TABLE payment_jobs ALTER COLUMN transaction_created_at SET NOT NULL;
+ALTER TABLE refunds ALTER COLUMN transaction_created_at SET NOT NULL;
@@ -0,0 +1,30 @@
+-- =====================================================
+-- TRANSACTION_DAILY_ROLLUPS (Pre-aggregated reporting)
+-- =====================================================
+-- One row per merchant, calendar day (of created_at), currency and status.
+-- Maintained incrementally on every status change and rebuilt per day by
+-- the reconciliation job from the raw transactions rows.
+CREATE TABLE transaction_daily_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL REFERENCES merchants(id) ON DELETE CASCADE,
+    rollup_date DATE NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN (
+        'PENDING', 'PROCESSING', 'COMPLETED', 'FAILED', 'REFUNDED', 'PARTIALLY_REFUNDED'
+    )),
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    UNIQUE(merchant_id, rollup_date, currency, status)
+);
+
+CREATE INDEX idx_rollup_date ON transaction_daily_rollups(rollup_date);
+
+-- Backfill from existing transactions
+INSERT INTO transaction_daily_rollups (
+    merchant_id, rollup_date, currency, status, transaction_count, total_amount
+)
+SELECT merchant_id, CAST(created_at AS DATE), currency, status, COUNT(*), SUM(amount)
+FROM transactions
+GROUP BY merchant_id, CAST(created_at AS DATE), currency, status;
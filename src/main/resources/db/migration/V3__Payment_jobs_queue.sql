@@ -0,0 +1,22 @@
+-- =====================================================
+-- PAYMENT_JOBS (Durable payment processing queue)
+-- =====================================================
+-- Written in the same transaction as the transaction row it refers to.
+-- Workers claim due rows with FOR UPDATE SKIP LOCKED and hide them from
+-- other workers until locked_until (the visibility timeout) passes.
+CREATE TABLE payment_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    transaction_id BIGINT UNIQUE NOT NULL REFERENCES transactions(id) ON DELETE CASCADE,
+    attempt_count INT NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_by VARCHAR(100),
+    locked_until TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_payment_jobs_available ON payment_jobs(available_at);
+
+-- Enqueue transactions that were still waiting for the old async executor
+INSERT INTO payment_jobs (transaction_id)
+SELECT id FROM transactions WHERE status = 'PENDING';
@@ -0,0 +1,2 @@
+-- Every authenticated request looks the merchant up by API key hash
+CREATE INDEX idx_merchant_api_key_hash ON merchants(api_key_hash);
@@ -0,0 +1,5 @@
+-- Per-merchant override of app.rate-limit.requests-per-minute
+ALTER TABLE merchants ADD COLUMN rate_limit_per_minute INT;
+
+-- Expired windows are deleted by window_start
+CREATE INDEX idx_api_rate_limits_window_start ON api_rate_limits(window_start);
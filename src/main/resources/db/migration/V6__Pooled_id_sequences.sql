@@ -0,0 +1,15 @@
+-- =====================================================
+-- POOLED ID SEQUENCES
+-- =====================================================
+-- Hibernate cannot batch inserts for IDENTITY columns, because it reads each
+-- generated key back one row at a time. These entities now use sequence IDs
+-- with allocationSize = 50. Each nextval reserves a block of 50 IDs, so the
+-- increment must match. Plain SQL inserts that rely on the column default
+-- still work; they simply use one value from the sequence.
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transaction_history_id_seq INCREMENT BY 50;
+ALTER SEQUENCE webhook_events_id_seq INCREMENT BY 50;
+ALTER SEQUENCE idempotency_cache_id_seq INCREMENT BY 50;
+ALTER SEQUENCE refunds_id_seq INCREMENT BY 50;
+ALTER SEQUENCE api_rate_limits_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payment_jobs_id_seq INCREMENT BY 50;
@@ -0,0 +1,16 @@
+-- Running total of refunds reserved against a transaction, kept in step by
+-- RefundService under a row lock instead of summing the refunds table
+ALTER TABLE transactions ADD COLUMN refunded_amount DECIMAL(19, 4) NOT NULL DEFAULT 0;
+
+UPDATE transactions t
+SET refunded_amount = r.total
+FROM (
+    SELECT transaction_id, SUM(amount) AS total
+    FROM refunds
+    WHERE status IN ('PENDING', 'PROCESSING', 'COMPLETED')
+    GROUP BY transaction_id
+) r
+WHERE t.id = r.transaction_id;
+
+ALTER TABLE transactions ADD CONSTRAINT chk_transactions_refunded_amount
+    CHECK (refunded_amount >= 0 AND refunded_amount <= amount);
@@ -0,0 +1,128 @@
+-- =====================================================
+-- TRANSACTIONS (Monthly range partitions on created_at)
+-- =====================================================
+-- Unique constraints on a partitioned table must include the partition key,
+-- and foreign keys can only reference such constraints. As a consequence:
+--   * the primary key becomes (id, created_at); ids still come from the
+--     shared transactions_id_seq, so id alone stays unique in practice
+--   * transaction_id and (merchant_id, idempotency_key) are indexed but no
+--     longer unique across partitions; idempotency_cache.idempotency_key is
+--     inserted in the same DB transaction and still rejects duplicates
+--   * history, refunds, webhook events and payment jobs lose their foreign
+--     keys to transactions(id); transactions are never deleted, only
+--     detached with their whole partition by the retention job
+
+ALTER TABLE transaction_history DROP CONSTRAINT IF EXISTS transaction_history_transaction_id_fkey;
+ALTER TABLE refunds DROP CONSTRAINT IF EXISTS refunds_transaction_id_fkey;
+ALTER TABLE webhook_events DROP CONSTRAINT IF EXISTS webhook_events_transaction_id_fkey;
+ALTER TABLE payment_jobs DROP CONSTRAINT IF EXISTS payment_jobs_transaction_id_fkey;
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER SEQUENCE transactions_id_seq OWNED BY NONE;
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL DEFAULT nextval('transactions_id_seq'),
+    transaction_id UUID NOT NULL DEFAULT gen_random_uuid(),
+    merchant_id BIGINT NOT NULL REFERENCES merchants(id) ON DELETE RESTRICT,
+    idempotency_key VARCHAR(255) NOT NULL,
+
+    -- Financial fields
+    amount DECIMAL(19, 4) NOT NULL CHECK (amount > 0),
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    refunded_amount DECIMAL(19, 4) NOT NULL DEFAULT 0,
+
+    -- Transaction details
+    status VARCHAR(20) NOT NULL CHECK (status IN (
+        'PENDING', 'PROCESSING', 'COMPLETED', 'FAILED', 'REFUNDED', 'PARTIALLY_REFUNDED'
+    )),
+    payment_method VARCHAR(50) NOT NULL CHECK (payment_method IN (
+        'CREDIT_CARD', 'DEBIT_CARD', 'BANK_TRANSFER', 'WALLET'
+    )),
+    description TEXT,
+
+    -- Customer info (optional)
+    customer_email VARCHAR(255),
+    customer_name VARCHAR(255),
+
+    -- Metadata (JSON for flexibility)
+    metadata JSONB,
+
+    -- Concurrency control
+    version BIGINT NOT NULL DEFAULT 0,
+
+    -- Timestamps
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP,
+    failed_at TIMESTAMP,
+
+    CONSTRAINT chk_transactions_refunded_amount
+        CHECK (refunded_amount >= 0 AND refunded_amount <= amount)
+) PARTITION BY RANGE (created_at);
+
+-- Creates the partition holding the month of the given date; a no-op if it
+-- already exists. Called by the scheduled partition maintenance job.
+CREATE OR REPLACE FUNCTION create_transactions_partition(month_of DATE)
+RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', month_of)::DATE;
+    partition_name TEXT := 'transactions_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    EXECUTE format(
+        'CREATE TABLE IF NOT EXISTS %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+        partition_name,
+        month_start,
+        (month_start + INTERVAL '1 month')::DATE
+    );
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Monthly partitions from the oldest existing row up to three months ahead
+DO $$
+DECLARE
+    month_of DATE := date_trunc(
+        'month',
+        COALESCE((SELECT MIN(created_at) FROM transactions_unpartitioned), CURRENT_TIMESTAMP)
+    )::DATE;
+BEGIN
+    WHILE month_of <= (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::DATE LOOP
+        PERFORM create_transactions_partition(month_of);
+        month_of := (month_of + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+-- Catches rows outside every monthly range (e.g. if maintenance stops running)
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+INSERT INTO transactions (
+    id, transaction_id, merchant_id, idempotency_key, amount, currency, refunded_amount,
+    status, payment_method, description, customer_email, customer_name, metadata, version,
+    created_at, updated_at, completed_at, failed_at
+)
+SELECT
+    id, transaction_id, merchant_id, idempotency_key, amount, currency, refunded_amount,
+    status, payment_method, description, customer_email, customer_name, metadata, version,
+    created_at, updated_at, completed_at, failed_at
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+-- Keys and indexes are built after the copy; each is created on every partition
+ALTER TABLE transactions ADD PRIMARY KEY (id, created_at);
+
+CREATE INDEX idx_merchant_created ON transactions(merchant_id, created_at DESC);
+CREATE INDEX idx_status ON transactions(status);
+CREATE INDEX idx_transaction_id ON transactions(transaction_id);
+CREATE INDEX idx_idempotency ON transactions(merchant_id, idempotency_key);
+CREATE INDEX idx_customer_email ON transactions(customer_email);
+
+CREATE TRIGGER update_transactions_updated_at
+    BEFORE UPDATE ON transactions
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
+
+-- Detached partitions past retention are moved here
+CREATE SCHEMA IF NOT EXISTS archive;
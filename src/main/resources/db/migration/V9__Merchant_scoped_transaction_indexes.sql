@@ -0,0 +1,15 @@
+-- =====================================================
+-- MERCHANT-SCOPED LISTING INDEXES
+-- =====================================================
+-- Every listing is scoped to one merchant and ordered by (created_at, id)
+-- DESC, the keyset cursor. Including id lets cursor pages seek without a
+-- sort, and the status variant serves status-filtered listings directly
+-- instead of filtering all of a merchant's rows.
+DROP INDEX IF EXISTS idx_merchant_created;
+CREATE INDEX idx_transactions_merchant_created
+    ON transactions(merchant_id, created_at DESC, id DESC);
+CREATE INDEX idx_transactions_merchant_status_created
+    ON transactions(merchant_id, status, created_at DESC, id DESC);
+
+-- No query filters on status without a merchant
+DROP INDEX IF EXISTS idx_status;
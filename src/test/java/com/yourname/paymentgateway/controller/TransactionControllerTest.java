@@ -1,13 +1,17 @@
 package com.yourname.paymentgateway.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourname.paymentgateway.dto.request.BatchCreateTransactionRequest;
 import com.yourname.paymentgateway.dto.request.CreateTransactionRequest;
 import com.yourname.paymentgateway.dto.response.TransactionResponse;
 import com.yourname.paymentgateway.entity.Merchant;
 import com.yourname.paymentgateway.enums.MerchantStatus;
 import com.yourname.paymentgateway.enums.PaymentMethod;
 import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
 import com.yourname.paymentgateway.security.MerchantDetails;
+import com.yourname.paymentgateway.service.RateLimitService;
+import com.yourname.paymentgateway.service.TransactionExportService;
 import com.yourname.paymentgateway.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,9 +23,11 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,6 +42,12 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
     
+    @MockBean
+    private TransactionExportService transactionExportService;
+    
+    @MockBean
+    private RateLimitService rateLimitService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -53,13 +65,15 @@ class TransactionControllerTest {
             .status(MerchantStatus.ACTIVE)
             .build();
         
-        merchantDetails = new MerchantDetails(merchant);
+        merchantDetails = new MerchantDetails(AuthenticatedMerchant.of(merchant));
         
         request = new CreateTransactionRequest();
         request.setAmount(new BigDecimal("100.00"));
         request.setCurrency("USD");
         request.setPaymentMethod(PaymentMethod.CREDIT_CARD);
         request.setDescription("Test payment");
+        
+        when(rateLimitService.tryConsume(any(AuthenticatedMerchant.class))).thenReturn(true);
     }
     
     @Test
@@ -107,5 +121,42 @@ class TransactionControllerTest {
             .andExpect(jsonPath("$.transactionId").value(transactionId.toString()))
             .andExpect(jsonPath("$.status").value("COMPLETED"));
     }
+    
+    @Test
+    void exportTransactions_WithUnknownFormat_ShouldReturn400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/transactions/export")
+                .param("format", "xml")
+                .with(user(merchantDetails)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unsupported export format: xml (use ndjson or csv)"));
+        verifyNoInteractions(transactionExportService);
+    }
+    
+    @Test
+    void createTransactions_WhenBatchExceedsRateLimit_ShouldReturn429() throws Exception {
+        // Arrange
+        BatchCreateTransactionRequest batch = new BatchCreateTransactionRequest();
+        batch.setItems(List.of(batchItem("batch-key-1"), batchItem("batch-key-2"), batchItem("batch-key-3")));
+        
+        when(rateLimitService.tryConsume(any(AuthenticatedMerchant.class), eq(2))).thenReturn(false);
+        
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                .with(user(merchantDetails))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+            .andExpect(status().isTooManyRequests());
+        verifyNoInteractions(transactionService);
+    }
+    
+    private BatchCreateTransactionRequest.Item batchItem(String idempotencyKey) {
+        BatchCreateTransactionRequest.Item item = new BatchCreateTransactionRequest.Item();
+        item.setAmount(request.getAmount());
+        item.setCurrency(request.getCurrency());
+        item.setPaymentMethod(request.getPaymentMethod());
+        item.setIdempotencyKey(idempotencyKey);
+        return item;
+    }
 }
 
@@ -0,0 +1,45 @@
+package com.yourname.paymentgateway.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL Hibernate sends, so plan tests can EXPLAIN exactly what
+ * the repository generates rather than a hand-written copy of it.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+    
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+    
+    static void clear() {
+        STATEMENTS.clear();
+    }
+    
+    static String lastSelectFrom(String table) {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            String sql = STATEMENTS.get(i);
+            if (sql.startsWith("select") && sql.contains(" from " + table + " ") && !sql.startsWith("select count")) {
+                return sql;
+            }
+        }
+        throw new IllegalStateException("No select from " + table + " captured");
+    }
+    
+    static String lastStartingWith(String prefix) {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            if (STATEMENTS.get(i).startsWith(prefix)) {
+                return STATEMENTS.get(i);
+            }
+        }
+        throw new IllegalStateException("No statement starting with '" + prefix + "' captured");
+    }
+}
+
@@ -0,0 +1,116 @@
+package com.yourname.paymentgateway.repository;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.enums.MerchantStatus;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The partitioned transactions table cannot enforce unique keys or be the
+ * target of foreign keys; transaction_keys does both. These run against
+ * real PostgreSQL because the guarantees live in a trigger and constraints.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class TransactionKeysTest {
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.5")
+        .withDatabaseName("testdb")
+        .withUsername("test")
+        .withPassword("test");
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+    
+    @Autowired
+    private MerchantRepository merchantRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Merchant merchant;
+    
+    @BeforeEach
+    void setUp() {
+        merchant = merchantRepository.saveAndFlush(Merchant.builder()
+            .merchantCode("KEYS_MERCHANT")
+            .businessName("Keys Business")
+            .email("keys@example.com")
+            .apiKeyHash("keys-hash")
+            .status(MerchantStatus.ACTIVE)
+            .build());
+    }
+    
+    @Test
+    void insert_ShouldRegisterKeyInSameTransaction() {
+        // Act
+        long id = insertTransaction("order-1", LocalDate.of(2024, 1, 15));
+        
+        // Assert
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT idempotency_key FROM transaction_keys WHERE id = ?", String.class, id
+        )).isEqualTo("order-1");
+    }
+    
+    @Test
+    void insert_WithKeyReusedInAnotherPartition_ShouldBeRejected() {
+        // Arrange: idempotency_cache holds nothing, as after ExpirySweeper ran;
+        // 2024 lands in transactions_default, today in its monthly partition
+        insertTransaction("order-1", LocalDate.of(2024, 1, 15));
+        
+        // Act & Assert
+        assertThatThrownBy(() -> insertTransaction("order-1", LocalDate.now()))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .hasMessageContaining("uq_transaction_keys_merchant_idempotency");
+    }
+    
+    @Test
+    void insertRefund_ForUnknownTransaction_ShouldBeRejected() {
+        // Act & Assert
+        assertThatThrownBy(() -> jdbcTemplate.update(
+            "INSERT INTO refunds (transaction_id, transaction_created_at, amount, reason, status) " +
+            "VALUES (?, CURRENT_TIMESTAMP, 10, 'test', 'PENDING')",
+            Long.MAX_VALUE
+        ))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .hasMessageContaining("refunds_transaction_id_fkey");
+    }
+    
+    private long insertTransaction(String idempotencyKey, LocalDate createdOn) {
+        Timestamp createdAt = Timestamp.valueOf(createdOn.atTime(12, 0));
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO transactions " +
+            "(merchant_id, idempotency_key, amount, currency, status, payment_method, created_at, updated_at) " +
+            "VALUES (?, ?, 100, 'USD', ?, ?, ?, ?) RETURNING id",
+            Long.class,
+            merchant.getId(), idempotencyKey, TransactionStatus.PENDING.name(), PaymentMethod.CREDIT_CARD.name(),
+            createdAt, createdAt
+        );
+    }
+}
+
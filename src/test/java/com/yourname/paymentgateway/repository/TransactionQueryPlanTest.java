@@ -0,0 +1,312 @@
+package com.yourname.paymentgateway.repository;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.MerchantStatus;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan regression suite for the merchant listing and lookup queries. Each
+ * test runs a repository method, captures the SQL Hibernate generated and
+ * asks Postgres for its generic plan (placeholders unbound). The tables hold
+ * a skewed, analyzed data set in every partition, so the planner costs real
+ * alternatives: the plan must reach every partition through the expected
+ * index, and a predicate the index cannot serve shows up as a Seq Scan or
+ * as a different index. Lookups by id and created_at are explained with
+ * their values bound instead, and must be pruned to the one partition that
+ * holds the row. The data set is committed once for the class, so the
+ * separate EXPLAIN connection sees the rows and their statistics.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionQueryPlanTest {
+    
+    // EXPLAIN (GENERIC_PLAN) needs PostgreSQL 16
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.2")
+        .withDatabaseName("testdb")
+        .withUsername("test")
+        .withPassword("test");
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add(
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector",
+            CapturingStatementInspector.class::getName
+        );
+    }
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private MerchantRepository merchantRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private static final int OTHER_MERCHANTS = 199;
+    private static final int TRANSACTIONS = 20_000;
+    
+    private Merchant merchant;
+    
+    @BeforeAll
+    void setUpData() {
+        merchant = merchantRepository.saveAndFlush(Merchant.builder()
+            .merchantCode("PLAN_MERCHANT")
+            .businessName("Plan Business")
+            .email("plan@example.com")
+            .apiKeyHash("plan-hash")
+            .status(MerchantStatus.ACTIVE)
+            .build());
+        insertSkewedTransactions();
+    }
+    
+    @BeforeEach
+    void setUp() {
+        CapturingStatementInspector.clear();
+    }
+    
+    @Test
+    void listingWithStatus_ShouldUseMerchantStatusIndex() throws SQLException {
+        // Act
+        transactionRepository.findByMerchantAndFilters(
+            merchant.getId(), TransactionStatus.COMPLETED, null, null, PageRequest.of(0, 20)
+        );
+        
+        // Assert
+        assertUsesIndex(CapturingStatementInspector.lastSelectFrom("transactions"),
+                        "idx_transactions_merchant_status_created");
+    }
+    
+    @Test
+    void listingWithDateRange_ShouldUseMerchantCreatedIndex() throws SQLException {
+        // Act
+        transactionRepository.findByMerchantAndFilters(
+            merchant.getId(), null, LocalDateTime.now().minusDays(7), LocalDateTime.now(), PageRequest.of(0, 20)
+        );
+        
+        // Assert
+        assertUsesIndex(CapturingStatementInspector.lastSelectFrom("transactions"),
+                        "idx_transactions_merchant_created");
+    }
+    
+    @Test
+    void keysetPageAfterCursor_ShouldUseMerchantCreatedIndex() throws SQLException {
+        // Act
+        transactionRepository.findKeysetPageAfter(
+            merchant.getId(), null, null, null, LocalDateTime.now(), 1000L, PageRequest.of(0, 21)
+        );
+        
+        // Assert
+        assertUsesIndex(CapturingStatementInspector.lastSelectFrom("transactions"),
+                        "idx_transactions_merchant_created");
+    }
+    
+    @Test
+    void keysetPageWithStatus_ShouldUseMerchantStatusIndex() throws SQLException {
+        // Act
+        transactionRepository.findKeysetFirstPage(
+            merchant.getId(), TransactionStatus.PENDING, null, null, PageRequest.of(0, 21)
+        );
+        
+        // Assert
+        assertUsesIndex(CapturingStatementInspector.lastSelectFrom("transactions"),
+                        "idx_transactions_merchant_status_created");
+    }
+    
+    @Test
+    void lookupByTransactionId_ShouldUseMerchantTransactionIndex() throws SQLException {
+        // Act
+        transactionRepository.findResponseByMerchantIdAndTransactionId(merchant.getId(), UUID.randomUUID());
+        
+        // Assert
+        assertUsesIndex(CapturingStatementInspector.lastSelectFrom("transactions"),
+                        "idx_transactions_merchant_transaction");
+    }
+    
+    @Test
+    void lockByIdAndCreatedAt_ShouldScanSinglePartition() {
+        // Arrange
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT id, created_at, tableoid::regclass::text AS partition FROM transactions " +
+            "WHERE merchant_id = ? ORDER BY created_at DESC LIMIT 1",
+            merchant.getId()
+        );
+        Long id = ((Number) row.get("id")).longValue();
+        LocalDateTime createdAt = ((Timestamp) row.get("created_at")).toLocalDateTime();
+        
+        // Act
+        Optional<Transaction> locked = transactionTemplate.execute(
+            status -> transactionRepository.findByIdForUpdate(id, createdAt)
+        );
+        
+        // Assert
+        assertThat(locked).isPresent();
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+            "EXPLAIN " + CapturingStatementInspector.lastSelectFrom("transactions"),
+            String.class,
+            id, createdAt
+        ));
+        assertThat(scannedPartitions(plan)).as("plan:%n%s", plan).containsExactly((String) row.get("partition"));
+    }
+    
+    @Test
+    void statusTransition_ShouldUpdateByPartitionKey() {
+        // Arrange
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT id, created_at FROM transactions WHERE merchant_id = ? AND status = 'PENDING' LIMIT 1",
+            merchant.getId()
+        );
+        Long id = ((Number) row.get("id")).longValue();
+        LocalDateTime createdAt = ((Timestamp) row.get("created_at")).toLocalDateTime();
+        
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            Transaction transaction = transactionRepository.findByIdAndCreatedAt(id, createdAt).orElseThrow();
+            transaction.transitionTo(TransactionStatus.PROCESSING);
+            transactionRepository.saveAndFlush(transaction);
+            status.setRollbackOnly();
+        });
+        
+        // Assert
+        assertThat(CapturingStatementInspector.lastStartingWith("update transactions "))
+            .containsPattern("where .*created_at=\\?");
+    }
+    
+    private void assertUsesIndex(String sql, String parentIndex) throws SQLException {
+        List<String> partitionIndexes = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = ?::regclass",
+            String.class,
+            parentIndex
+        );
+        String plan = explainGeneric(sql);
+        
+        assertThat(plan).as("plan for %s", sql).doesNotContain("Seq Scan");
+        assertThat(partitionIndexes).isNotEmpty();
+        for (String partitionIndex : partitionIndexes) {
+            assertThat(plan).as("plan for %s", sql).contains(" " + partitionIndex + " ");
+        }
+    }
+    
+    private List<String> scannedPartitions(String plan) {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'transactions'::regclass ORDER BY c.relname",
+            String.class
+        ).stream()
+            .filter(partition -> plan.contains(" on " + partition + " "))
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Spreads transactions over every partition, from two months back into
+     * the default partition up to the last monthly one ahead. One hot
+     * merchant owns 40% of the rows, the test merchant 1%, the rest spread
+     * over the others; 90% are COMPLETED. ANALYZE then gives the planner the
+     * statistics a production table would have.
+     */
+    private void insertSkewedTransactions() {
+        jdbcTemplate.update(
+            "INSERT INTO merchants (merchant_code, business_name, email, api_key_hash, status) " +
+            "SELECT 'PLAN_OTHER_' || g, 'Other ' || g, 'other' || g || '@example.com', 'other-hash-' || g, 'ACTIVE' " +
+            "FROM generate_series(1, ?) g",
+            OTHER_MERCHANTS
+        );
+        jdbcTemplate.update(
+            "WITH others AS (" +
+            "    SELECT array_agg(id ORDER BY id) AS ids FROM merchants WHERE merchant_code LIKE 'PLAN_OTHER_%'" +
+            "), span AS (" +
+            "    SELECT date_trunc('month', now())::timestamp - INTERVAL '2 months' AS first_at," +
+            "           date_trunc('month', now())::timestamp + INTERVAL '4 months' AS end_at" +
+            ") " +
+            "INSERT INTO transactions " +
+            "(merchant_id, idempotency_key, amount, currency, status, payment_method, created_at, updated_at) " +
+            "SELECT CASE WHEN g % 100 = 0 THEN ? " +
+            "            WHEN g % 5 < 2 THEN others.ids[1] " +
+            "            ELSE others.ids[1 + g % array_length(others.ids, 1)] END, " +
+            "       'plan-' || g, 10 + g % 500, 'USD', " +
+            "       CASE (g / 7) % 20 WHEN 0 THEN 'PENDING' WHEN 1 THEN 'FAILED' ELSE 'COMPLETED' END, " +
+            "       'CREDIT_CARD', at, at " +
+            "FROM generate_series(1, ?) g, others, span, " +
+            "     LATERAL (SELECT first_at + (end_at - first_at) * g / (? + 1) AS at) placed",
+            merchant.getId(), TRANSACTIONS, TRANSACTIONS
+        );
+        jdbcTemplate.execute("ANALYZE merchants");
+        jdbcTemplate.execute("ANALYZE transactions");
+    }
+    
+    private String explainGeneric(String sql) throws SQLException {
+        // Hibernate emits JDBC ? placeholders; EXPLAIN (GENERIC_PLAN) expects $n
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        
+        // The extended protocol would send $n as bind parameters, so EXPLAIN over the simple one
+        Properties properties = new Properties();
+        properties.setProperty("user", postgres.getUsername());
+        properties.setProperty("password", postgres.getPassword());
+        properties.setProperty("preferQueryMode", "simple");
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), properties);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+            List<String> lines = new ArrayList<>();
+            while (rs.next()) {
+                lines.add(rs.getString(1));
+            }
+            return String.join("\n", lines);
+        }
+    }
+}
+
@@ -10,9 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.TestPropertySource;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -93,5 +95,34 @@ class TransactionRepositoryTest {
         assertThat(found).isPresent();
         assertThat(found.get().getIdempotencyKey()).isEqualTo("test-key-123");
     }
+    
+    @Test
+    void findKeysetPageAfter_ShouldContinueWhereFirstPageEnded() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            transactionRepository.save(Transaction.builder()
+                .merchant(merchant)
+                .idempotencyKey("keyset-key-" + i)
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .status(TransactionStatus.PENDING)
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .build());
+        }
+        
+        // Act
+        List<Transaction> firstPage = transactionRepository.findKeysetFirstPage(
+            merchant.getId(), null, null, null, PageRequest.of(0, 2)
+        );
+        Transaction lastSeen = firstPage.get(1);
+        List<Transaction> secondPage = transactionRepository.findKeysetPageAfter(
+            merchant.getId(), null, null, null, lastSeen.getCreatedAt(), lastSeen.getId(), PageRequest.of(0, 2)
+        );
+        
+        // Assert
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage).doesNotContainAnyElementsOf(firstPage);
+    }
 }
 
@@ -0,0 +1,96 @@
+package com.yourname.paymentgateway.security;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.enums.MerchantStatus;
+import com.yourname.paymentgateway.repository.MerchantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MerchantAuthCacheTest {
+    
+    @Mock
+    private MerchantRepository merchantRepository;
+    
+    private MerchantAuthCache merchantAuthCache;
+    private Merchant merchant;
+    
+    @BeforeEach
+    void setUp() {
+        merchantAuthCache = new MerchantAuthCache(
+            merchantRepository, new SimpleMeterRegistry(), 100, 60, 100, 30
+        );
+        merchant = Merchant.builder()
+            .id(1L)
+            .merchantCode("TEST_MERCHANT")
+            .apiKeyHash("good-hash")
+            .status(MerchantStatus.ACTIVE)
+            .build();
+    }
+    
+    @Test
+    void resolve_WithKnownKey_ShouldQueryRepositoryOnce() {
+        // Arrange
+        when(merchantRepository.findByApiKeyHash("good-hash")).thenReturn(Optional.of(merchant));
+        
+        // Act
+        merchantAuthCache.resolve("good-hash");
+        var result = merchantAuthCache.resolve("good-hash");
+        
+        // Assert
+        assertThat(result).contains(AuthenticatedMerchant.of(merchant));
+        verify(merchantRepository, times(1)).findByApiKeyHash("good-hash");
+    }
+    
+    @Test
+    void resolve_ShouldCacheSnapshotDetachedFromEntity() {
+        // Arrange
+        when(merchantRepository.findByApiKeyHash("good-hash")).thenReturn(Optional.of(merchant));
+        merchantAuthCache.resolve("good-hash");
+        
+        // Act: a change to the loaded entity that was never committed
+        merchant.setStatus(MerchantStatus.SUSPENDED);
+        var result = merchantAuthCache.resolve("good-hash");
+        
+        // Assert
+        assertThat(result).get().extracting(AuthenticatedMerchant::status).isEqualTo(MerchantStatus.ACTIVE);
+    }
+    
+    @Test
+    void resolve_WithUnknownKey_ShouldBeNegativelyCached() {
+        // Arrange
+        when(merchantRepository.findByApiKeyHash("bad-hash")).thenReturn(Optional.empty());
+        
+        // Act
+        merchantAuthCache.resolve("bad-hash");
+        var result = merchantAuthCache.resolve("bad-hash");
+        
+        // Assert
+        assertThat(result).isEmpty();
+        verify(merchantRepository, times(1)).findByApiKeyHash("bad-hash");
+    }
+    
+    @Test
+    void invalidate_ShouldForceReload() {
+        // Arrange
+        when(merchantRepository.findByApiKeyHash("good-hash")).thenReturn(Optional.of(merchant));
+        merchantAuthCache.resolve("good-hash");
+        
+        // Act
+        merchantAuthCache.invalidate(merchant);
+        merchantAuthCache.resolve("good-hash");
+        
+        // Assert
+        verify(merchantRepository, times(2)).findByApiKeyHash("good-hash");
+    }
+}
+
@@ -0,0 +1,59 @@
+package com.yourname.paymentgateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdConcurrencyLimitTest {
+    
+    private static final long THRESHOLD = 1_000_000_000L;
+    
+    @Test
+    void onSample_WhenSlow_ShouldBackOffOncePerWindow() {
+        // Arrange
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(1, 20, THRESHOLD, 0.5);
+        
+        // Act
+        limit.onSample(THRESHOLD * 2, false);
+        limit.onSample(THRESHOLD * 2, false);
+        limit.onSample(0, true);
+        
+        // Assert
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+    
+    @Test
+    void onSample_WhenFast_ShouldGrowByOnePerWindowUpToMax() {
+        // Arrange
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(1, 20, THRESHOLD, 0.5);
+        limit.onSample(0, true);
+        
+        // Act
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(THRESHOLD / 2, false);
+        }
+        int afterTwoWindows = limit.getLimit();
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(THRESHOLD / 2, false);
+        }
+        
+        // Assert
+        assertThat(afterTwoWindows).isEqualTo(11);
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+    
+    @Test
+    void onSample_ShouldNeverDropBelowMin() {
+        // Arrange
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 4, THRESHOLD, 0.1);
+        
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(0, true);
+        }
+        
+        // Assert
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+}
+
@@ -0,0 +1,132 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.ApiRateLimit;
+import com.yourname.paymentgateway.repository.ApiRateLimitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DistributedRateLimiterTest {
+    
+    @Mock
+    private ApiRateLimitRepository rateLimitRepository;
+    
+    private DistributedRateLimiter rateLimiter;
+    
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new DistributedRateLimiter(
+            rateLimitRepository, new SimpleMeterRegistry(), 10, 100, Duration.ofMinutes(10)
+        );
+    }
+    
+    @Test
+    void tryConsume_ShouldServeRequestsFromLease() {
+        // Arrange
+        when(rateLimitRepository.reserveTokens(eq(1L), any(), eq(10), eq(120))).thenReturn(10);
+        
+        // Act
+        boolean allAllowed = true;
+        for (int i = 0; i < 10; i++) {
+            allAllowed &= rateLimiter.tryConsume(1L, 120);
+        }
+        
+        // Assert
+        assertThat(allAllowed).isTrue();
+        verify(rateLimitRepository, times(1)).reserveTokens(eq(1L), any(), eq(10), eq(120));
+    }
+    
+    @Test
+    void tryConsume_WhenWindowExhausted_ShouldDenyWithoutFurtherQueries() {
+        // Arrange
+        when(rateLimitRepository.reserveTokens(eq(1L), any(), eq(10), eq(120))).thenReturn(null);
+        
+        // Act
+        boolean first = rateLimiter.tryConsume(1L, 120);
+        boolean second = rateLimiter.tryConsume(1L, 120);
+        
+        // Assert
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        verify(rateLimitRepository, times(1)).reserveTokens(eq(1L), any(), eq(10), eq(120));
+    }
+    
+    @Test
+    void tryConsume_WithPartialChunk_ShouldOnlyGrantRemainder() {
+        // Arrange: another node already used 115 of 120
+        when(rateLimitRepository.reserveTokens(eq(1L), any(), eq(10), eq(120))).thenReturn(125);
+        
+        // Act
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (rateLimiter.tryConsume(1L, 120)) {
+                allowed++;
+            }
+        }
+        
+        // Assert
+        assertThat(allowed).isEqualTo(5);
+    }
+    
+    @Test
+    void tryConsume_WithBatchLargerThanLease_ShouldLeaseShortfallAtOnce() {
+        // Arrange
+        when(rateLimitRepository.reserveTokens(eq(1L), any(), eq(50), eq(120))).thenReturn(50);
+        when(rateLimitRepository.findByMerchantIdAndWindowStart(eq(1L), any())).thenReturn(window(50));
+        
+        // Act
+        boolean allowed = rateLimiter.tryConsume(1L, 120, 50);
+        
+        // Assert: the whole lease was spent, the rest of the window is unleased
+        assertThat(allowed).isTrue();
+        assertThat(rateLimiter.getAvailableTokens(1L, 120)).isEqualTo(70);
+    }
+    
+    @Test
+    void tryConsume_WithBatchOverRemainingLimit_ShouldDenyWholeBatch() {
+        // Arrange: another node already used 100 of 120
+        when(rateLimitRepository.reserveTokens(eq(1L), any(), eq(30), eq(120))).thenReturn(130);
+        when(rateLimitRepository.findByMerchantIdAndWindowStart(eq(1L), any())).thenReturn(window(130));
+        
+        // Act
+        boolean batchAllowed = rateLimiter.tryConsume(1L, 120, 30);
+        boolean singleAllowed = rateLimiter.tryConsume(1L, 120);
+        
+        // Assert: the 20 granted tokens stay usable by smaller requests
+        assertThat(batchAllowed).isFalse();
+        assertThat(singleAllowed).isTrue();
+        assertThat(rateLimiter.getAvailableTokens(1L, 120)).isEqualTo(19);
+    }
+    
+    @Test
+    void getAvailableTokens_ShouldReportTokensOtherNodesLeased() {
+        // Arrange: this node holds no lease, other nodes took 90 of 120
+        when(rateLimitRepository.findByMerchantIdAndWindowStart(eq(1L), any())).thenReturn(window(90));
+        
+        // Act
+        long available = rateLimiter.getAvailableTokens(1L, 120);
+        
+        // Assert
+        assertThat(available).isEqualTo(30);
+        verify(rateLimitRepository, never()).reserveTokens(anyLong(), any(), anyInt(), anyInt());
+    }
+    
+    private static Optional<ApiRateLimit> window(int requestCount) {
+        return Optional.of(ApiRateLimit.builder().merchantId(1L).requestCount(requestCount).build());
+    }
+}
+
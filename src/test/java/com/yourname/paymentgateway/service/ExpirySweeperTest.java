@@ -0,0 +1,75 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.repository.ApiRateLimitRepository;
+import com.yourname.paymentgateway.repository.IdempotencyCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpirySweeperTest {
+    
+    @Mock
+    private IdempotencyCacheRepository cacheRepository;
+    
+    @Mock
+    private ApiRateLimitRepository rateLimitRepository;
+    
+    @Mock
+    private PaymentMetrics paymentMetrics;
+    
+    private ExpirySweeper sweeper;
+    
+    @BeforeEach
+    void setUp() {
+        sweeper = new ExpirySweeper(cacheRepository, rateLimitRepository, paymentMetrics, 100, 0, 3, 5);
+    }
+    
+    @Test
+    void sweep_ShouldStopWhenChunkIsNotFull() {
+        // Arrange
+        when(cacheRepository.deleteExpiredBatch(any(), eq(100))).thenReturn(100, 40);
+        when(rateLimitRepository.deleteOldWindowsBatch(any(), eq(100))).thenReturn(0);
+        
+        // Act
+        sweeper.sweep();
+        
+        // Assert
+        verify(cacheRepository, times(2)).deleteExpiredBatch(any(), eq(100));
+        verify(paymentMetrics).recordExpiredRowsSwept("idempotency_cache", 100);
+        verify(paymentMetrics).recordExpiredRowsSwept("idempotency_cache", 40);
+    }
+    
+    @Test
+    void sweepTable_ShouldCapChunksPerRun() {
+        // Act
+        int removed = sweeper.sweepTable("api_rate_limits", limit -> limit);
+        
+        // Assert
+        assertThat(removed).isEqualTo(300);
+    }
+    
+    @Test
+    void sweepTable_WhenDeleteFails_ShouldKeepRowsRemovedSoFar() {
+        // Arrange
+        when(rateLimitRepository.deleteOldWindowsBatch(any(), eq(100)))
+            .thenReturn(100)
+            .thenThrow(new RuntimeException("connection lost"));
+        
+        // Act
+        int removed = sweeper.sweepTable(
+            "api_rate_limits", limit -> rateLimitRepository.deleteOldWindowsBatch(null, limit)
+        );
+        
+        // Assert
+        assertThat(removed).isEqualTo(100);
+    }
+}
+
@@ -0,0 +1,107 @@
+package com.yourname.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.repository.IdempotencyCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyResponseCacheTest {
+    
+    private final IdempotencyResponseCache cache =
+        new IdempotencyResponseCache(100, 600, new SimpleMeterRegistry());
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void get_BeforeRowExpiry_ShouldReturnResponseForSameMerchantOnly() {
+        // Arrange
+        TransactionResponse response = response();
+        
+        // Act
+        cache.put(1L, "key-1", response, LocalDateTime.now().plusHours(1));
+        
+        // Assert
+        assertThat(cache.get(1L, "key-1")).isSameAs(response);
+        assertThat(cache.get(2L, "key-1")).isNull();
+    }
+    
+    @Test
+    void get_AfterRowExpiry_ShouldMissAndDropEntry() {
+        // Arrange: well inside the L1 TTL, but past the row's expires_at
+        cache.put(1L, "key-1", response(), LocalDateTime.now().minusSeconds(1));
+        
+        // Act
+        TransactionResponse first = cache.get(1L, "key-1");
+        TransactionResponse second = cache.get(1L, "key-1");
+        
+        // Assert
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+    }
+    
+    @Test
+    void cacheResponse_ShouldOnlyPopulateCacheAfterCommit() {
+        // Arrange
+        IdempotencyService idempotencyService = idempotencyService();
+        TransactionResponse response = response();
+        TransactionSynchronizationManager.initSynchronization();
+        
+        // Act
+        idempotencyService.cacheResponse(1L, "key-1", response);
+        TransactionResponse beforeCommit = cache.get(1L, "key-1");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        
+        // Assert
+        assertThat(beforeCommit).isNull();
+        assertThat(cache.get(1L, "key-1")).isSameAs(response);
+    }
+    
+    @Test
+    void cacheResponse_WhenRolledBack_ShouldNotPopulateCache() {
+        // Arrange
+        IdempotencyService idempotencyService = idempotencyService();
+        TransactionSynchronizationManager.initSynchronization();
+        
+        // Act
+        idempotencyService.cacheResponse(1L, "key-1", response());
+        TransactionSynchronizationManager.getSynchronizations().forEach(
+            synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK)
+        );
+        
+        // Assert
+        assertThat(cache.get(1L, "key-1")).isNull();
+    }
+    
+    private IdempotencyService idempotencyService() {
+        return new IdempotencyService(
+            mock(IdempotencyCacheRepository.class),
+            new ObjectMapper().findAndRegisterModules(),
+            cache,
+            mock(PaymentMetrics.class)
+        );
+    }
+    
+    private static TransactionResponse response() {
+        return TransactionResponse.builder()
+            .transactionId(UUID.randomUUID())
+            .amount(new BigDecimal("100.00"))
+            .build();
+    }
+}
+
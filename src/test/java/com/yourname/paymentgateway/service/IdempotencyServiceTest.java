@@ -29,6 +29,12 @@ class IdempotencyServiceTest {
     @Mock
     private ObjectMapper objectMapper;
     
+    @Mock
+    private IdempotencyResponseCache responseCache;
+    
+    @Mock
+    private PaymentMetrics paymentMetrics;
+    
     @InjectMocks
     private IdempotencyService idempotencyService;
     
@@ -104,6 +110,23 @@ class IdempotencyServiceTest {
         
         // Assert
         verify(cacheRepository).save(any(IdempotencyCache.class));
+        verify(responseCache).put(eq(merchantId), eq(idempotencyKey), eq(testResponse), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void getCachedResponse_WithLocalHit_ShouldNotQueryRepository() {
+        // Arrange
+        Long merchantId = 1L;
+        String idempotencyKey = "local-key";
+        
+        when(responseCache.get(merchantId, idempotencyKey)).thenReturn(testResponse);
+        
+        // Act
+        var result = idempotencyService.getCachedResponse(merchantId, idempotencyKey);
+        
+        // Assert
+        assertThat(result).isEqualTo(testResponse);
+        verifyNoInteractions(cacheRepository, objectMapper);
     }
 }
 
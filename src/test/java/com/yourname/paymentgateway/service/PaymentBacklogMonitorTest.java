@@ -0,0 +1,71 @@
+package com.yourname.paymentgateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentBacklogMonitorTest {
+    
+    @Mock
+    private PaymentQueueService queueService;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentBacklogMonitor monitor;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new PaymentBacklogMonitor(queueService, new PaymentMetrics(meterRegistry), 30);
+    }
+    
+    @Test
+    void sample_WhenOldestDueJobIsPastMaxLag_ShouldReportBacklog() {
+        // Arrange
+        when(queueService.oldestDueJobAge()).thenReturn(Duration.ofSeconds(45));
+        
+        // Act
+        monitor.sample();
+        
+        // Assert
+        assertThat(monitor.isBacklogged()).isTrue();
+        assertThat(meterRegistry.get("payment.queue.lag.seconds").gauge().value()).isEqualTo(45.0);
+    }
+    
+    @Test
+    void sample_WhenWorkersKeepUp_ShouldAdmitPayments() {
+        // Arrange
+        when(queueService.oldestDueJobAge()).thenReturn(Duration.ofSeconds(2));
+        
+        // Act
+        monitor.sample();
+        
+        // Assert
+        assertThat(monitor.isBacklogged()).isFalse();
+    }
+    
+    @Test
+    void sample_WhenQueryFails_ShouldKeepLastSample() {
+        // Arrange
+        when(queueService.oldestDueJobAge())
+            .thenReturn(Duration.ofSeconds(45))
+            .thenThrow(new IllegalStateException("connection refused"));
+        
+        // Act
+        monitor.sample();
+        monitor.sample();
+        
+        // Assert
+        assertThat(monitor.getLag()).isEqualTo(Duration.ofSeconds(45));
+        assertThat(monitor.isBacklogged()).isTrue();
+    }
+}
+
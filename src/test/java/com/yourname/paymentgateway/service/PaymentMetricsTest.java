@@ -0,0 +1,60 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.enums.MerchantStatus;
+import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentMetricsTest {
+    
+    private SimpleMeterRegistry registry;
+    private PaymentMetrics paymentMetrics;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        paymentMetrics = new PaymentMetrics(registry);
+    }
+    
+    @Test
+    void timeProcessorCall_ShouldTagEachOutcome() {
+        // Act
+        paymentMetrics.timeProcessorCall("charge", () -> CompletableFuture.completedFuture(
+            new PaymentProcessorClient.PaymentResult(true, "APPROVED", "ok", "PROC_1")
+        ));
+        paymentMetrics.timeProcessorCall("charge", () -> CompletableFuture.completedFuture(
+            new PaymentProcessorClient.PaymentResult(false, "DECLINED", "no", null)
+        ));
+        paymentMetrics.timeProcessorCall("charge", () -> {
+            throw new PaymentProcessorException("down");
+        });
+        
+        // Assert
+        for (String outcome : new String[] {"approved", "declined", "error"}) {
+            assertThat(registry.get("payment.processor.latency")
+                .tags("operation", "charge", "outcome", outcome)
+                .timer()
+                .count()).isEqualTo(1);
+        }
+    }
+    
+    @Test
+    void recordRateLimitRejection_ShouldCountPerMerchant() {
+        // Arrange
+        AuthenticatedMerchant merchant = new AuthenticatedMerchant(7L, "M7", MerchantStatus.ACTIVE, null, null);
+        
+        // Act
+        paymentMetrics.recordRateLimitRejection(merchant);
+        paymentMetrics.recordRateLimitRejection(merchant);
+        
+        // Assert
+        assertThat(registry.get("rate.limit.rejections").tag("merchant", "M7").counter().count()).isEqualTo(2.0);
+    }
+}
+
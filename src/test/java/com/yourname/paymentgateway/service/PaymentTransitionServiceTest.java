@@ -0,0 +1,130 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.MerchantStatus;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.repository.MerchantRepository;
+import com.yourname.paymentgateway.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Commits payment outcomes against real PostgreSQL, so the webhook outbox
+ * insert (jsonb payload, Propagation.MANDATORY) runs in the same transaction
+ * as the status change, exactly as in production. Tests are not wrapped in
+ * a test transaction; every call commits.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({PaymentTransitionService.class, TransactionAuditLog.class, WebhookService.class})
+class PaymentTransitionServiceTest {
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.5")
+        .withDatabaseName("testdb")
+        .withUsername("test")
+        .withPassword("test");
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+    
+    @Autowired
+    private PaymentTransitionService transitionService;
+    
+    @Autowired
+    private MerchantRepository merchantRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @MockBean
+    private PaymentMetrics paymentMetrics;
+    
+    private Transaction transaction;
+    
+    @BeforeEach
+    void setUp() {
+        String code = "OUTBOX_" + UUID.randomUUID().toString().substring(0, 8);
+        Merchant merchant = merchantRepository.save(Merchant.builder()
+            .merchantCode(code)
+            .businessName("Outbox Business")
+            .email(code.toLowerCase() + "@example.com")
+            .apiKeyHash(code + "-hash")
+            .status(MerchantStatus.ACTIVE)
+            .build());
+        
+        transaction = transactionRepository.save(Transaction.builder()
+            .merchant(merchant)
+            .idempotencyKey(code + "-key")
+            .amount(new BigDecimal("100.00"))
+            .currency("USD")
+            .status(TransactionStatus.PROCESSING)
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .build());
+    }
+    
+    @Test
+    void completeProcessing_ShouldCommitStatusChangeWithOutboxEvent() {
+        // Act
+        transitionService.completeProcessing(
+            transaction.getId(),
+            transaction.getCreatedAt(),
+            new PaymentProcessorClient.PaymentResult(true, "APPROVED", "ok", "PROC_1")
+        );
+        
+        // Assert
+        String status = jdbcTemplate.queryForObject(
+            "SELECT status FROM transactions WHERE id = ?", String.class, transaction.getId()
+        );
+        Map<String, Object> event = jdbcTemplate.queryForMap(
+            "SELECT w.event_type, w.status, w.payload ->> 'eventType' AS payload_event, "
+                + "w.payload ->> 'transactionId' AS payload_transaction_id, "
+                + "w.transaction_created_at = t.created_at AS carries_partition_key "
+                + "FROM webhook_events w JOIN transactions t ON t.id = w.transaction_id WHERE w.transaction_id = ?",
+            transaction.getId()
+        );
+        
+        assertThat(status).isEqualTo("COMPLETED");
+        assertThat(event)
+            .containsEntry("event_type", "TRANSACTION_COMPLETED")
+            .containsEntry("status", "PENDING")
+            .containsEntry("payload_event", "transaction.completed")
+            .containsEntry("payload_transaction_id", transaction.getTransactionId().toString())
+            .containsEntry("carries_partition_key", true);
+    }
+}
+
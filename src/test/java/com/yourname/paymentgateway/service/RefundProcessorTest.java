@@ -0,0 +1,143 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.enums.RefundStatus;
+import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefundProcessorTest {
+    
+    @Mock
+    private RefundService refundService;
+    
+    @Mock
+    private PaymentProcessorClient processorClient;
+    
+    private RefundProcessor refundProcessor;
+    private Refund refund;
+    
+    @BeforeEach
+    void setUp() {
+        refundProcessor = new RefundProcessor(refundService, processorClient, new PaymentMetrics(new SimpleMeterRegistry()));
+        
+        refund = Refund.builder()
+            .id(20L)
+            .refundId(UUID.randomUUID())
+            .amount(new BigDecimal("40.00"))
+            .status(RefundStatus.PROCESSING)
+            .build();
+    }
+    
+    @Test
+    void recoverStalled_ShouldReclaimEachRecoverableRefund() {
+        // Arrange
+        when(refundService.findStalledRefundIds(any(), anyInt())).thenReturn(List.of(20L, 21L));
+        when(refundService.startProcessing(anyLong(), any())).thenReturn(Optional.empty());
+        
+        // Act
+        refundProcessor.recoverStalled();
+        
+        // Assert
+        verify(refundService).startProcessing(eq(20L), any());
+        verify(refundService).startProcessing(eq(21L), any());
+        verifyNoInteractions(processorClient);
+    }
+    
+    @Test
+    void process_WhenRecordingOutcomeFails_ShouldLeaveRefundClaimedForRecovery() {
+        // Arrange
+        when(refundService.startProcessing(eq(20L), any())).thenReturn(Optional.of(refund));
+        when(processorClient.refund(refund)).thenReturn(CompletableFuture.completedFuture(
+            new PaymentProcessorClient.PaymentResult(true, "APPROVED", "ok", "PROC_1")
+        ));
+        doThrow(new IllegalStateException("connection lost")).when(refundService).completeRefund(eq(20L), any());
+        
+        // Act
+        CompletableFuture<Void> outcome = refundProcessor.process(20L);
+        
+        // Assert: no second, failing outcome is recorded; the expired claim is retried later
+        assertThat(outcome).isCompletedExceptionally();
+        verify(refundService, times(1)).completeRefund(eq(20L), any());
+    }
+    
+    @Test
+    void process_WhenProcessorTimesOut_ShouldDeferInsteadOfFailing() {
+        // Arrange
+        when(refundService.startProcessing(eq(20L), any())).thenReturn(Optional.of(refund));
+        when(processorClient.refund(refund)).thenReturn(CompletableFuture.failedFuture(
+            new PaymentProcessorException("Payment processor timed out")
+        ));
+        
+        // Act
+        CompletableFuture<Void> outcome = refundProcessor.process(20L);
+        
+        // Assert: the processor may have paid, so the amount stays reserved
+        assertThat(outcome).isCompleted();
+        verify(refundService).deferRefund(eq(20L), any(), eq("Payment processor timed out"));
+        verify(refundService, never()).completeRefund(any(), any());
+    }
+    
+    @Test
+    void process_WhenProcessorDeclines_ShouldRecordDecline() {
+        // Arrange
+        PaymentProcessorClient.PaymentResult declined =
+            new PaymentProcessorClient.PaymentResult(false, "DECLINED", "Refund window closed", null);
+        when(refundService.startProcessing(eq(20L), any())).thenReturn(Optional.of(refund));
+        when(processorClient.refund(refund)).thenReturn(CompletableFuture.completedFuture(declined));
+        
+        // Act
+        refundProcessor.process(20L);
+        
+        // Assert
+        verify(refundService).completeRefund(20L, declined);
+        verify(refundService, never()).deferRefund(any(), any(), any());
+    }
+    
+    @Test
+    void process_WhenBulkheadRejectsCall_ShouldLeaveRefundForRecovery() {
+        // Arrange
+        Bulkhead fullBulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        fullBulkhead.tryAcquirePermission();
+        PaymentMetrics paymentMetrics = new PaymentMetrics(new SimpleMeterRegistry());
+        RefundProcessor guardedProcessor = new RefundProcessor(
+            refundService,
+            new ResilientPaymentProcessorClient(
+                processorClient, CircuitBreakerRegistry.ofDefaults(), fullBulkhead, paymentMetrics
+            ),
+            paymentMetrics
+        );
+        when(refundService.startProcessing(eq(20L), any())).thenReturn(Optional.of(refund));
+        
+        // Act
+        guardedProcessor.process(20L);
+        
+        // Assert
+        verify(refundService).deferRefund(eq(20L), any(), eq("Payment processor bulkhead is full"));
+        verify(refundService, never()).completeRefund(any(), any());
+        verifyNoInteractions(processorClient);
+    }
+}
+
@@ -0,0 +1,222 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.dto.request.RefundRequest;
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.entity.Refund;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.RefundStatus;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.event.RefundRequestedEvent;
+import com.yourname.paymentgateway.repository.RefundRepository;
+import com.yourname.paymentgateway.repository.TransactionRepository;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefundServiceTest {
+    
+    @Mock
+    private RefundRepository refundRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private WebhookService webhookService;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @InjectMocks
+    private RefundService refundService;
+    
+    private Merchant merchant;
+    private Transaction transaction;
+    
+    @BeforeEach
+    void setUp() {
+        merchant = Merchant.builder()
+            .id(1L)
+            .merchantCode("TEST_MERCHANT")
+            .build();
+        
+        transaction = Transaction.builder()
+            .id(10L)
+            .transactionId(UUID.randomUUID())
+            .merchant(merchant)
+            .amount(new BigDecimal("100.00"))
+            .status(TransactionStatus.COMPLETED)
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .createdAt(LocalDateTime.of(2024, 1, 15, 10, 0))
+            .build();
+    }
+    
+    @Test
+    void createRefund_ExceedingRemainingAmount_ShouldRejectWithoutScanningRefunds() {
+        // Arrange
+        transaction.setStatus(TransactionStatus.PARTIALLY_REFUNDED);
+        transaction.setRefundedAmount(new BigDecimal("70.00"));
+        when(transactionRepository.findByMerchantIdAndTransactionIdForUpdate(1L, transaction.getTransactionId()))
+            .thenReturn(Optional.of(transaction));
+        
+        // Act & Assert
+        assertThatThrownBy(() -> refundService.createRefund(AuthenticatedMerchant.of(merchant), transaction.getTransactionId(), refundOf("40.00")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Remaining: 30.00");
+        assertThat(transaction.getRefundedAmount()).isEqualByComparingTo("70.00");
+        verify(refundRepository, never()).findByTransactionId(any());
+        verify(refundRepository, never()).save(any());
+    }
+    
+    @Test
+    void createRefund_ShouldReserveAmountAndDispatchAfterCommit() {
+        // Arrange
+        when(transactionRepository.findByMerchantIdAndTransactionIdForUpdate(1L, transaction.getTransactionId()))
+            .thenReturn(Optional.of(transaction));
+        when(refundRepository.save(any(Refund.class))).thenAnswer(invocation -> {
+            Refund refund = invocation.getArgument(0);
+            refund.setId(20L);
+            return refund;
+        });
+        
+        // Act
+        var response = refundService.createRefund(AuthenticatedMerchant.of(merchant), transaction.getTransactionId(), refundOf("100.00"));
+        
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(RefundStatus.PENDING);
+        assertThat(transaction.getRefundedAmount()).isEqualByComparingTo("100.00");
+        verify(refundRepository).save(argThat(refund -> transaction.getCreatedAt().equals(refund.getTransactionCreatedAt())));
+        verify(eventPublisher).publishEvent(argThat(
+            (Object event) -> event instanceof RefundRequestedEvent requested && requested.getRefundId().equals(20L)
+        ));
+    }
+    
+    @Test
+    void completeRefund_ForFullyReservedAmount_ShouldMarkTransactionRefunded() {
+        // Arrange
+        transaction.setRefundedAmount(new BigDecimal("100.00"));
+        Refund refund = Refund.builder()
+            .id(20L)
+            .transaction(transaction)
+            .transactionCreatedAt(transaction.getCreatedAt())
+            .amount(new BigDecimal("100.00"))
+            .status(RefundStatus.PROCESSING)
+            .build();
+        when(refundRepository.findById(20L)).thenReturn(Optional.of(refund));
+        when(transactionRepository.findByIdForUpdate(10L, transaction.getCreatedAt())).thenReturn(Optional.of(transaction));
+        when(refundRepository.existsByTransactionIdAndStatusInAndIdNot(eq(10L), anyCollection(), eq(20L)))
+            .thenReturn(false);
+        
+        // Act
+        refundService.completeRefund(20L, new PaymentProcessorClient.PaymentResult(true, "APPROVED", "ok", "PROC_1"));
+        
+        // Assert
+        assertThat(refund.getStatus()).isEqualTo(RefundStatus.COMPLETED);
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.REFUNDED);
+        verify(webhookService).sendRefundCompletedEvent(refund);
+    }
+    
+    @Test
+    void completeRefund_WhenProcessorDeclines_ShouldReleaseReservation() {
+        // Arrange
+        transaction.setRefundedAmount(new BigDecimal("100.00"));
+        Refund refund = Refund.builder()
+            .id(20L)
+            .transaction(transaction)
+            .transactionCreatedAt(transaction.getCreatedAt())
+            .amount(new BigDecimal("40.00"))
+            .status(RefundStatus.PROCESSING)
+            .build();
+        when(refundRepository.findById(20L)).thenReturn(Optional.of(refund));
+        when(transactionRepository.findByIdForUpdate(10L, transaction.getCreatedAt())).thenReturn(Optional.of(transaction));
+        
+        // Act
+        refundService.completeRefund(20L, new PaymentProcessorClient.PaymentResult(false, "DECLINED", "no", null));
+        
+        // Assert
+        assertThat(refund.getStatus()).isEqualTo(RefundStatus.FAILED);
+        assertThat(transaction.getRefundedAmount()).isEqualByComparingTo("60.00");
+        verify(webhookService, never()).sendRefundCompletedEvent(any());
+    }
+    
+    @Test
+    void startProcessing_ShouldClaimUntilLeaseExpiry() {
+        // Arrange
+        Refund refund = Refund.builder().id(20L).status(RefundStatus.PROCESSING).build();
+        when(refundRepository.claim(eq(20L), any(), any())).thenReturn(1);
+        when(refundRepository.findById(20L)).thenReturn(Optional.of(refund));
+        LocalDateTime before = LocalDateTime.now();
+        
+        // Act
+        Optional<Refund> claimed = refundService.startProcessing(20L, Duration.ofSeconds(120));
+        
+        // Assert
+        assertThat(claimed).contains(refund);
+        verify(refundRepository).claim(
+            eq(20L),
+            any(),
+            argThat(lockedUntil -> !lockedUntil.isBefore(before.plusSeconds(120)))
+        );
+    }
+    
+    @Test
+    void startProcessing_WhenClaimedElsewhere_ShouldSkip() {
+        // Arrange
+        when(refundRepository.claim(eq(20L), any(), any())).thenReturn(0);
+        
+        // Act
+        Optional<Refund> claimed = refundService.startProcessing(20L, Duration.ofSeconds(120));
+        
+        // Assert
+        assertThat(claimed).isEmpty();
+        verify(refundRepository, never()).findById(any());
+    }
+    
+    @Test
+    void deferRefund_ShouldKeepRefundProcessingAndAmountReserved() {
+        // Arrange
+        Refund refund = Refund.builder()
+            .id(20L)
+            .transaction(transaction)
+            .amount(new BigDecimal("40.00"))
+            .status(RefundStatus.PROCESSING)
+            .build();
+        when(refundRepository.findById(20L)).thenReturn(Optional.of(refund));
+        LocalDateTime before = LocalDateTime.now();
+        
+        // Act
+        refundService.deferRefund(20L, Duration.ofSeconds(10), "Payment processor timed out");
+        
+        // Assert
+        assertThat(refund.getStatus()).isEqualTo(RefundStatus.PROCESSING);
+        assertThat(refund.getLockedUntil()).isAfterOrEqualTo(before.plusSeconds(10));
+        assertThat(refund.getLastError()).isEqualTo("Payment processor timed out");
+        verifyNoInteractions(transactionRepository);
+    }
+    
+    private RefundRequest refundOf(String amount) {
+        RefundRequest request = new RefundRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setReason("Customer request");
+        return request;
+    }
+}
+
@@ -0,0 +1,93 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.dto.response.DailySummaryResponse;
+import com.yourname.paymentgateway.dto.response.RevenueReportResponse;
+import com.yourname.paymentgateway.entity.TransactionDailyRollup;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.repository.TransactionDailyRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+    
+    @Mock
+    private TransactionDailyRollupRepository rollupRepository;
+    
+    @InjectMocks
+    private ReportService reportService;
+    
+    private final LocalDate day = LocalDate.of(2024, 1, 15);
+    
+    @Test
+    void getDailySummary_ShouldAggregateRollupBuckets() {
+        // Arrange
+        when(rollupRepository.findByMerchantIdAndRollupDateBetweenOrderByRollupDateAsc(1L, day, day.plusDays(1)))
+            .thenReturn(List.of(
+                rollup(day, "USD", TransactionStatus.COMPLETED, 3, "300.00"),
+                rollup(day, "EUR", TransactionStatus.COMPLETED, 1, "50.00"),
+                rollup(day, "USD", TransactionStatus.FAILED, 2, "80.00"),
+                rollup(day, "USD", TransactionStatus.PENDING, 1, "10.00")
+            ));
+        
+        // Act
+        List<DailySummaryResponse> summary = reportService.getDailySummary(1L, day, day.plusDays(1));
+        
+        // Assert
+        assertThat(summary).hasSize(2);
+        DailySummaryResponse first = summary.get(0);
+        assertThat(first.getTotalTransactions()).isEqualTo(7L);
+        assertThat(first.getCompletedTransactions()).isEqualTo(4L);
+        assertThat(first.getFailedTransactions()).isEqualTo(2L);
+        assertThat(first.getTotalAmount()).isEqualByComparingTo("350.00");
+        assertThat(summary.get(1).getTotalTransactions()).isZero();
+    }
+    
+    @Test
+    void getRevenueReport_ShouldOnlyCountCompletedBuckets() {
+        // Arrange
+        when(rollupRepository.findByMerchantIdAndRollupDateBetweenOrderByRollupDateAsc(1L, day, day))
+            .thenReturn(List.of(
+                rollup(day, "USD", TransactionStatus.COMPLETED, 3, "300.00"),
+                rollup(day, "EUR", TransactionStatus.COMPLETED, 1, "100.00"),
+                rollup(day, "USD", TransactionStatus.FAILED, 2, "80.00")
+            ));
+        
+        // Act
+        RevenueReportResponse report = reportService.getRevenueReport(1L, day, day);
+        
+        // Assert
+        assertThat(report.getTotalRevenue()).isEqualByComparingTo("400.00");
+        assertThat(report.getTotalTransactions()).isEqualTo(4L);
+        assertThat(report.getAverageTransactionAmount()).isEqualByComparingTo("100.00");
+        assertThat(report.getRevenueByCurrency()).containsKeys("USD", "EUR");
+    }
+    
+    private TransactionDailyRollup rollup(
+        LocalDate date,
+        String currency,
+        TransactionStatus status,
+        long count,
+        String amount
+    ) {
+        return TransactionDailyRollup.builder()
+            .merchantId(1L)
+            .rollupDate(date)
+            .currency(currency)
+            .status(status)
+            .transactionCount(count)
+            .totalAmount(new BigDecimal(amount))
+            .build();
+    }
+}
+
@@ -0,0 +1,102 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientPaymentProcessorClientTest {
+    
+    @Mock
+    private PaymentProcessorClient delegate;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ResilientPaymentProcessorClient client;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CircuitBreakerRegistry breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(2)
+            .minimumNumberOfCalls(2)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build());
+        Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        client = new ResilientPaymentProcessorClient(delegate, breakers, bulkhead, new PaymentMetrics(meterRegistry));
+    }
+    
+    @Test
+    void charge_WhenOneMethodKeepsFailing_ShouldOpenOnlyThatMethodsBreaker() {
+        // Arrange
+        Transaction card = transaction(PaymentMethod.CREDIT_CARD);
+        Transaction transfer = transaction(PaymentMethod.BANK_TRANSFER);
+        when(delegate.charge(card)).thenReturn(CompletableFuture.failedFuture(new PaymentProcessorException("down")));
+        when(delegate.charge(transfer)).thenReturn(CompletableFuture.completedFuture(approved()));
+        
+        // Act
+        client.charge(card);
+        client.charge(card);
+        var rejected = client.charge(card);
+        var allowed = client.charge(transfer);
+        
+        // Assert
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(allowed).isCompletedWithValue(approved());
+        verify(delegate, times(2)).charge(card);
+        assertThat(meterRegistry.get("payment.processor.circuit.transitions")
+            .tags("breaker", "payment-processor-credit_card", "to", "OPEN")
+            .counter()
+            .count()).isEqualTo(1.0);
+    }
+    
+    @Test
+    void charge_WhenBulkheadIsFull_ShouldFailFastWithoutCallingProcessor() {
+        // Arrange
+        Transaction first = transaction(PaymentMethod.CREDIT_CARD);
+        Transaction second = transaction(PaymentMethod.WALLET);
+        when(delegate.charge(first)).thenReturn(new CompletableFuture<>());
+        
+        // Act
+        client.charge(first);
+        var rejected = client.charge(second);
+        
+        // Assert
+        assertThat(rejected).isCompletedExceptionally();
+        verify(delegate, never()).charge(second);
+    }
+    
+    private Transaction transaction(PaymentMethod method) {
+        return Transaction.builder()
+            .transactionId(UUID.randomUUID())
+            .amount(new BigDecimal("10.00"))
+            .paymentMethod(method)
+            .build();
+    }
+    
+    private PaymentProcessorClient.PaymentResult approved() {
+        return new PaymentProcessorClient.PaymentResult(true, "APPROVED", "ok", "PROC_1");
+    }
+}
+
@@ -0,0 +1,65 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.exception.PaymentProcessorException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StubPaymentProcessorClientTest {
+    
+    private final Transaction transaction = Transaction.builder()
+        .transactionId(UUID.randomUUID())
+        .amount(new BigDecimal("10.00"))
+        .build();
+    
+    @Test
+    void charge_WithFullSuccessRate_ShouldApproveAfterLatency() throws Exception {
+        // Arrange
+        StubPaymentProcessorClient client = new StubPaymentProcessorClient(Runnable::run, settings(1.0, 0.0, 0.0));
+        
+        // Act
+        var result = client.charge(transaction).get();
+        
+        // Assert
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.getProcessorTransactionId()).startsWith("PROC_");
+    }
+    
+    @Test
+    void charge_WithZeroSuccessRate_ShouldDeclineWithoutError() throws Exception {
+        // Arrange
+        StubPaymentProcessorClient client = new StubPaymentProcessorClient(Runnable::run, settings(0.0, 0.0, 0.0));
+        
+        // Act
+        var result = client.charge(transaction).get();
+        
+        // Assert
+        assertThat(result.isSuccessful()).isFalse();
+        assertThat(result.getErrorMessage()).isNotBlank();
+    }
+    
+    @Test
+    void charge_WithInjectedTimeouts_ShouldFailWithProcessorException() {
+        // Arrange
+        StubPaymentProcessorClient client = new StubPaymentProcessorClient(Runnable::run, settings(1.0, 0.0, 1.0));
+        
+        // Act & Assert
+        assertThatThrownBy(() -> client.charge(transaction).get())
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(PaymentProcessorException.class)
+            .hasMessageContaining("timed out");
+    }
+    
+    private StubPaymentProcessorClient.Settings settings(double successRate, double errorRate, double timeoutRate) {
+        return new StubPaymentProcessorClient.Settings(
+            1, 5, 0.0, 0, 1, successRate, errorRate, timeoutRate, 20
+        );
+    }
+}
+
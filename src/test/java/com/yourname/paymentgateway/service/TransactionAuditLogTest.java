@@ -0,0 +1,73 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.TransactionHistory;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.repository.TransactionHistoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionAuditLogTest {
+    
+    @Mock
+    private TransactionHistoryRepository historyRepository;
+    
+    @InjectMocks
+    private TransactionAuditLog auditLog;
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.unbindResourceIfPossible(auditLog);
+    }
+    
+    @Test
+    void record_WithoutTransaction_ShouldSaveImmediately() {
+        // Act
+        auditLog.record(entry(TransactionStatus.PENDING));
+        
+        // Assert
+        verify(historyRepository).saveAll(any());
+    }
+    
+    @Test
+    void record_InTransaction_ShouldSaveAllEntriesOnceBeforeCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        
+        // Act
+        auditLog.record(entry(TransactionStatus.PROCESSING));
+        auditLog.record(entry(TransactionStatus.COMPLETED));
+        verify(historyRepository, never()).saveAll(any());
+        
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        
+        // Assert
+        verify(historyRepository, times(1)).saveAll(argThat(entries -> ((List<?>) entries).size() == 2));
+    }
+    
+    private TransactionHistory entry(TransactionStatus toStatus) {
+        return TransactionHistory.builder()
+            .toStatus(toStatus)
+            .changedBy("SYSTEM")
+            .build();
+    }
+}
+
@@ -0,0 +1,125 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.config.JacksonConfig;
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.exception.ServiceOverloadedException;
+import com.yourname.paymentgateway.repository.TransactionExportRepository;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+    
+    @Mock
+    private TransactionExportRepository exportRepository;
+    
+    private TransactionExportService exportService;
+    private AuthenticatedMerchant merchant;
+    private TransactionResponse row;
+    
+    @BeforeEach
+    void setUp() {
+        exportService = new TransactionExportService(exportRepository, new JacksonConfig().objectMapper(), 1, 30);
+        merchant = AuthenticatedMerchant.of(Merchant.builder().id(1L).build());
+        row = TransactionResponse.builder()
+            .transactionId(UUID.randomUUID())
+            .amount(new BigDecimal("100.00"))
+            .currency("USD")
+            .status(TransactionStatus.COMPLETED)
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .description("=SUM(A1), \"VIP\"")
+            .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30))
+            .build();
+        
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionResponse> consumer = invocation.getArgument(4);
+            consumer.accept(row);
+            consumer.accept(row);
+            return null;
+        }).when(exportRepository).streamByMerchantAndFilters(eq(1L), any(), any(), any(), any());
+    }
+    
+    @Test
+    void export_AsNdjson_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // Act
+        exportService.export(merchant, null, null, null, TransactionExportService.Format.NDJSON, format -> out);
+        
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains(row.getTransactionId().toString());
+    }
+    
+    @Test
+    void export_AsCsv_ShouldQuoteAndNeutraliseFreeText() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // Act
+        exportService.export(merchant, null, null, null, TransactionExportService.Format.CSV, format -> out);
+        
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("transaction_id,amount");
+        assertThat(lines[1]).contains(",\"'=SUM(A1), \"\"VIP\"\"\",");
+    }
+    
+    @Test
+    void export_WhenAllSlotsAreBusy_ShouldRejectBeforeOpeningTheTarget() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean[] innerOpened = {false};
+        
+        // Act
+        exportService.export(merchant, null, null, null, TransactionExportService.Format.CSV, format -> {
+            // The only slot is held by this export while the nested one is attempted
+            assertThatThrownBy(() -> exportService.export(
+                merchant, null, null, null, TransactionExportService.Format.CSV, nested -> {
+                    innerOpened[0] = true;
+                    return new ByteArrayOutputStream();
+                }))
+                .isInstanceOf(ServiceOverloadedException.class);
+            return out;
+        });
+        
+        // Assert
+        assertThat(innerOpened[0]).isFalse();
+        assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("transaction_id,amount");
+        exportService.export(merchant, null, null, null, TransactionExportService.Format.NDJSON, format -> out);
+    }
+    
+    @Test
+    void formatFromParameter_WithUnknownValue_ShouldRejectAsIllegalArgument() {
+        // Act & Assert
+        assertThat(TransactionExportService.Format.fromParameter("CSV")).isEqualTo(TransactionExportService.Format.CSV);
+        assertThatThrownBy(() -> TransactionExportService.Format.fromParameter("xml"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("xml");
+    }
+}
+
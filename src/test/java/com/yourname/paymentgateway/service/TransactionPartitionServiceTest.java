@@ -0,0 +1,63 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.repository.TransactionPartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionServiceTest {
+    
+    @Mock
+    private TransactionPartitionRepository partitionRepository;
+    
+    @Test
+    void expiredPartitions_ShouldOnlyReturnMonthsBeforeCutoff() {
+        // Arrange
+        List<String> partitions = List.of("transactions_2025_11", "transactions_2025_12", "transactions_2026_01");
+        
+        // Act
+        List<String> expired = TransactionPartitionService.expiredPartitions(partitions, YearMonth.of(2025, 12));
+        
+        // Assert
+        assertThat(expired).containsExactly("transactions_2025_11");
+    }
+    
+    @Test
+    void maintain_WithoutRetention_ShouldOnlyCreateFuturePartitions() {
+        // Arrange
+        TransactionPartitionService service = new TransactionPartitionService(partitionRepository, 3, 0, "archive");
+        when(partitionRepository.tryLock(anyLong())).thenReturn(true);
+        
+        // Act
+        service.maintain();
+        
+        // Assert
+        verify(partitionRepository, times(4)).createPartition(any());
+        verify(partitionRepository, never()).detachPartition(any());
+    }
+    
+    @Test
+    void maintain_WhenLockHeldElsewhere_ShouldDoNothing() {
+        // Arrange
+        TransactionPartitionService service = new TransactionPartitionService(partitionRepository, 3, 12, "archive");
+        when(partitionRepository.tryLock(anyLong())).thenReturn(false);
+        
+        // Act
+        service.maintain();
+        
+        // Assert
+        verify(partitionRepository, never()).createPartition(any());
+        verify(partitionRepository, never()).findMonthlyPartitions();
+    }
+}
+
@@ -0,0 +1,49 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.dto.response.TransactionResponse;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionResponseCacheTest {
+    
+    private final TransactionResponseCache cache =
+        new TransactionResponseCache(true, 100, 30, new SimpleMeterRegistry());
+    
+    @Test
+    void putIfFinal_WithFinalStatus_ShouldCacheForSameMerchantOnly() {
+        // Arrange
+        TransactionResponse response = response(TransactionStatus.REFUNDED);
+        
+        // Act
+        cache.putIfFinal(1L, response);
+        
+        // Assert
+        assertThat(cache.get(1L, response.getTransactionId())).isSameAs(response);
+        assertThat(cache.get(2L, response.getTransactionId())).isNull();
+    }
+    
+    @Test
+    void putIfFinal_WithCompletedStatus_ShouldNotCache() {
+        // Arrange
+        TransactionResponse response = response(TransactionStatus.COMPLETED);
+        
+        // Act
+        cache.putIfFinal(1L, response);
+        
+        // Assert
+        assertThat(cache.get(1L, response.getTransactionId())).isNull();
+    }
+    
+    private static TransactionResponse response(TransactionStatus status) {
+        return TransactionResponse.builder()
+            .transactionId(UUID.randomUUID())
+            .status(status)
+            .build();
+    }
+}
+
@@ -0,0 +1,171 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.enums.MerchantStatus;
+import com.yourname.paymentgateway.enums.PaymentMethod;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.event.TransactionStatusChangedEvent;
+import com.yourname.paymentgateway.repository.MerchantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the rollup listener, fold and rebuild against real PostgreSQL, since
+ * all three are native upserts and data-modifying CTEs.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Import(TransactionRollupService.class)
+class TransactionRollupServiceTest {
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.5")
+        .withDatabaseName("testdb")
+        .withUsername("test")
+        .withPassword("test");
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+    
+    @Autowired
+    private TransactionRollupService rollupService;
+    
+    @Autowired
+    private MerchantRepository merchantRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final LocalDate day = LocalDate.of(2024, 1, 15);
+    
+    private Merchant merchant;
+    
+    @BeforeEach
+    void setUp() {
+        merchant = merchantRepository.save(Merchant.builder()
+            .merchantCode("ROLLUP_MERCHANT")
+            .businessName("Rollup Business")
+            .email("rollup@example.com")
+            .apiKeyHash("rollup-hash")
+            .status(MerchantStatus.ACTIVE)
+            .build());
+    }
+    
+    @Test
+    void onStatusChanged_ShouldAppendDeltasThatFoldIntoBuckets() {
+        // Arrange
+        Transaction transaction = Transaction.builder()
+            .merchant(merchant)
+            .amount(new BigDecimal("100.00"))
+            .currency("USD")
+            .createdAt(day.atTime(10, 0))
+            .build();
+        
+        // Act
+        rollupService.onStatusChanged(new TransactionStatusChangedEvent(transaction, null, TransactionStatus.PENDING));
+        rollupService.onStatusChanged(new TransactionStatusChangedEvent(
+            transaction, TransactionStatus.PENDING, TransactionStatus.PROCESSING));
+        rollupService.onStatusChanged(new TransactionStatusChangedEvent(
+            transaction, TransactionStatus.PROCESSING, TransactionStatus.COMPLETED));
+        
+        // Assert
+        assertThat(countRows("transaction_daily_rollups")).isZero();
+        assertThat(countRows("transaction_rollup_deltas")).isEqualTo(5);
+        
+        rollupService.foldDeltas();
+        
+        assertThat(countRows("transaction_rollup_deltas")).isZero();
+        assertThat(bucket(TransactionStatus.COMPLETED)).containsEntry("transaction_count", 1L);
+        assertThat((BigDecimal) bucket(TransactionStatus.COMPLETED).get("total_amount")).isEqualByComparingTo("100.00");
+        assertThat(bucket(TransactionStatus.PENDING)).containsEntry("transaction_count", 0L);
+        assertThat(bucket(TransactionStatus.PROCESSING)).containsEntry("transaction_count", 0L);
+    }
+    
+    @Test
+    void rebuildDay_ShouldReplaceBucketsAndDropThatDaysPendingDeltas() {
+        // Arrange
+        insertTransaction(TransactionStatus.COMPLETED, "40.00", day);
+        insertTransaction(TransactionStatus.COMPLETED, "60.00", day);
+        insertTransaction(TransactionStatus.FAILED, "25.00", day);
+        jdbcTemplate.update(
+            "INSERT INTO transaction_daily_rollups " +
+            "(merchant_id, rollup_date, currency, status, transaction_count, total_amount) " +
+            "VALUES (?, ?, 'USD', 'COMPLETED', 99, 9999)",
+            merchant.getId(), day
+        );
+        recordDelta(day);
+        recordDelta(day.plusDays(1));
+        
+        // Act
+        int inserted = rollupService.rebuildDay(day);
+        
+        // Assert
+        assertThat(inserted).isEqualTo(2);
+        assertThat(bucket(TransactionStatus.COMPLETED)).containsEntry("transaction_count", 2L);
+        assertThat((BigDecimal) bucket(TransactionStatus.COMPLETED).get("total_amount")).isEqualByComparingTo("100.00");
+        assertThat(bucket(TransactionStatus.FAILED)).containsEntry("transaction_count", 1L);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM transaction_rollup_deltas WHERE rollup_date = ?", Long.class, day.plusDays(1)
+        )).isEqualTo(1L);
+        assertThat(countRows("transaction_rollup_deltas")).isEqualTo(1);
+    }
+    
+    private void insertTransaction(TransactionStatus status, String amount, LocalDate createdOn) {
+        Timestamp createdAt = Timestamp.valueOf(createdOn.atTime(12, 0));
+        jdbcTemplate.update(
+            "INSERT INTO transactions " +
+            "(merchant_id, idempotency_key, amount, currency, status, payment_method, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'USD', ?, ?, ?, ?)",
+            merchant.getId(), UUID.randomUUID().toString(), new BigDecimal(amount),
+            status.name(), PaymentMethod.CREDIT_CARD.name(), createdAt, createdAt
+        );
+    }
+    
+    private void recordDelta(LocalDate rollupDate) {
+        jdbcTemplate.update(
+            "INSERT INTO transaction_rollup_deltas " +
+            "(merchant_id, rollup_date, currency, status, count_delta, amount_delta) " +
+            "VALUES (?, ?, 'USD', 'COMPLETED', 1, 10)",
+            merchant.getId(), rollupDate
+        );
+    }
+    
+    private Map<String, Object> bucket(TransactionStatus status) {
+        return jdbcTemplate.queryForMap(
+            "SELECT transaction_count, total_amount FROM transaction_daily_rollups " +
+            "WHERE merchant_id = ? AND rollup_date = ? AND currency = 'USD' AND status = ?",
+            merchant.getId(), day, status.name()
+        );
+    }
+    
+    private long countRows(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+}
+
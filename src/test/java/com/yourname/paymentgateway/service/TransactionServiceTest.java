@@ -1,25 +1,36 @@
 package com.yourname.paymentgateway.service;
 
+import com.yourname.paymentgateway.dto.request.BatchCreateTransactionRequest;
 import com.yourname.paymentgateway.dto.request.CreateTransactionRequest;
 import com.yourname.paymentgateway.dto.response.TransactionResponse;
 import com.yourname.paymentgateway.entity.Merchant;
 import com.yourname.paymentgateway.entity.Transaction;
 import com.yourname.paymentgateway.enums.PaymentMethod;
 import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.exception.DuplicateTransactionException;
+import com.yourname.paymentgateway.repository.MerchantRepository;
 import com.yourname.paymentgateway.repository.TransactionHistoryRepository;
 import com.yourname.paymentgateway.repository.TransactionRepository;
+import com.yourname.paymentgateway.security.AuthenticatedMerchant;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -29,22 +40,38 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
     
+    @Mock
+    private MerchantRepository merchantRepository;
+    
     @Mock
     private TransactionHistoryRepository historyRepository;
     
+    @Mock
+    private TransactionAuditLog auditLog;
+    
     @Mock
     private IdempotencyService idempotencyService;
     
     @Mock
-    private PaymentProcessorService paymentProcessor;
+    private PaymentProcessorClient processorClient;
     
     @Mock
-    private WebhookService webhookService;
+    private PaymentTransitionService paymentTransitions;
+    
+    @Mock
+    private PaymentQueueService paymentQueue;
+    
+    @Mock
+    private PaymentMetrics paymentMetrics;
+    
+    @Mock
+    private TransactionResponseCache responseCache;
     
     @InjectMocks
     private TransactionService transactionService;
     
     private Merchant merchant;
+    private AuthenticatedMerchant authenticatedMerchant;
     private CreateTransactionRequest request;
     
     @BeforeEach
@@ -56,6 +83,7 @@ class TransactionServiceTest {
             .email("test@example.com")
             .status(com.yourname.paymentgateway.enums.MerchantStatus.ACTIVE)
             .build();
+        authenticatedMerchant = AuthenticatedMerchant.of(merchant);
         
         request = new CreateTransactionRequest();
         request.setAmount(new BigDecimal("100.00"));
@@ -79,12 +107,12 @@ class TransactionServiceTest {
             .status(TransactionStatus.PENDING)
             .build();
         
-        when(transactionRepository.save(any(Transaction.class)))
+        when(transactionRepository.saveAndFlush(any(Transaction.class)))
             .thenReturn(savedTransaction);
         
         // Act
         var response = transactionService.createTransaction(
-            merchant, 
+            authenticatedMerchant, 
             idempotencyKey, 
             request
         );
@@ -94,8 +122,30 @@ class TransactionServiceTest {
         assertThat(response.getAmount()).isEqualTo(request.getAmount());
         assertThat(response.getStatus()).isEqualTo(TransactionStatus.PENDING);
         
-        verify(transactionRepository).save(any(Transaction.class));
+        verify(transactionRepository).saveAndFlush(any(Transaction.class));
         verify(idempotencyService).cacheResponse(anyLong(), anyString(), any());
+        verify(paymentQueue).enqueue(savedTransaction);
+        verify(merchantRepository).getReferenceById(1L);
+        verifyNoMoreInteractions(merchantRepository);
+    }
+    
+    @Test
+    void createTransaction_WithKeyReusedAfterCacheExpiry_ShouldRejectAsDuplicate() {
+        // Arrange
+        when(idempotencyService.getCachedResponse(anyLong(), anyString()))
+            .thenReturn(null);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenThrow(new DataIntegrityViolationException(
+            "could not execute statement",
+            new ConstraintViolationException(
+                "duplicate key", new SQLException(), "uq_transaction_keys_merchant_idempotency"
+            )
+        ));
+        
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(authenticatedMerchant, "expired-key", request))
+            .isInstanceOf(DuplicateTransactionException.class)
+            .hasMessageContaining("expired-key");
+        verifyNoInteractions(paymentQueue);
     }
     
     @Test
@@ -112,7 +162,7 @@ class TransactionServiceTest {
         
         // Act
         var response = transactionService.createTransaction(
-            merchant, 
+            authenticatedMerchant, 
             idempotencyKey, 
             request
         );
@@ -120,30 +170,93 @@ class TransactionServiceTest {
         // Assert
         assertThat(response).isEqualTo(cachedResponse);
         verify(transactionRepository, never()).save(any());
+        verify(paymentQueue, never()).enqueue(any());
+    }
+    
+    @Test
+    void createTransactions_ShouldOnlyCreateUnseenKeys() {
+        // Arrange
+        var cachedResponse = TransactionResponse.builder()
+            .transactionId(UUID.randomUUID())
+            .amount(request.getAmount())
+            .build();
+        when(idempotencyService.getCachedResponses(eq(1L), anyCollection()))
+            .thenReturn(Map.of("seen-key", cachedResponse));
+        
+        Transaction savedTransaction = Transaction.builder()
+            .id(2L)
+            .transactionId(UUID.randomUUID())
+            .merchant(merchant)
+            .idempotencyKey("new-key")
+            .amount(request.getAmount())
+            .status(TransactionStatus.PENDING)
+            .build();
+        when(transactionRepository.saveAll(anyCollection())).thenReturn(List.of(savedTransaction));
+        
+        // Act
+        var response = transactionService.createTransactions(
+            authenticatedMerchant,
+            List.of(batchItem("seen-key"), batchItem("new-key"), batchItem("new-key"))
+        );
+        
+        // Assert
+        assertThat(response.getResults()).extracting("duplicate").containsExactly(true, false, true);
+        assertThat(response.getResults().get(0).getTransaction()).isEqualTo(cachedResponse);
+        assertThat(response.getResults().get(2).getTransaction().getTransactionId())
+            .isEqualTo(savedTransaction.getTransactionId());
+        verify(paymentQueue).enqueueAll(List.of(savedTransaction));
+        verify(idempotencyService).cacheResponses(eq(1L), argThat(responses -> responses.keySet().equals(Set.of("new-key"))));
     }
     
     @Test
     void getTransaction_WithValidId_ShouldReturnTransaction() {
         // Arrange
         UUID transactionId = UUID.randomUUID();
-        Transaction transaction = Transaction.builder()
-            .id(1L)
+        TransactionResponse projected = TransactionResponse.builder()
             .transactionId(transactionId)
-            .merchant(merchant)
             .amount(new BigDecimal("100.00"))
             .status(TransactionStatus.COMPLETED)
             .build();
         
-        when(transactionRepository.findByMerchantAndTransactionId(merchant, transactionId))
-            .thenReturn(Optional.of(transaction));
+        when(transactionRepository.findResponseByMerchantIdAndTransactionId(1L, transactionId))
+            .thenReturn(Optional.of(projected));
         
         // Act
-        var response = transactionService.getTransaction(merchant, transactionId);
+        var response = transactionService.getTransaction(authenticatedMerchant, transactionId);
         
         // Assert
         assertThat(response).isNotNull();
         assertThat(response.getTransactionId()).isEqualTo(transactionId);
         assertThat(response.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        verify(responseCache).putIfFinal(1L, projected);
+        verify(transactionRepository, never()).findByMerchantIdAndTransactionId(any(), any());
+    }
+    
+    @Test
+    void getTransaction_WhenCached_ShouldNotQuery() {
+        // Arrange
+        UUID transactionId = UUID.randomUUID();
+        TransactionResponse cached = TransactionResponse.builder()
+            .transactionId(transactionId)
+            .status(TransactionStatus.FAILED)
+            .build();
+        when(responseCache.get(1L, transactionId)).thenReturn(cached);
+        
+        // Act
+        var response = transactionService.getTransaction(authenticatedMerchant, transactionId);
+        
+        // Assert
+        assertThat(response).isSameAs(cached);
+        verifyNoInteractions(transactionRepository);
+    }
+    
+    private BatchCreateTransactionRequest.Item batchItem(String idempotencyKey) {
+        BatchCreateTransactionRequest.Item item = new BatchCreateTransactionRequest.Item();
+        item.setIdempotencyKey(idempotencyKey);
+        item.setAmount(request.getAmount());
+        item.setCurrency("USD");
+        item.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        return item;
     }
 }
 
@@ -0,0 +1,131 @@
+package com.yourname.paymentgateway.service;
+
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.entity.WebhookEvent;
+import com.yourname.paymentgateway.repository.MerchantRepository;
+import com.yourname.paymentgateway.service.WebhookService.ClaimedEvent;
+import com.yourname.paymentgateway.service.WebhookService.DeliveryOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookDispatcherTest {
+    
+    @Mock
+    private WebhookService webhookService;
+    
+    @Mock
+    private MerchantRepository merchantRepository;
+    
+    @Mock
+    private HttpClient httpClient;
+    
+    @Mock
+    private PaymentMetrics paymentMetrics;
+    
+    private WebhookDispatcher dispatcher;
+    
+    @BeforeEach
+    void setUp() {
+        dispatcher = new WebhookDispatcher(
+            webhookService, merchantRepository, httpClient, paymentMetrics, 10, 1, 100, 1000
+        );
+    }
+    
+    @Test
+    void poll_ShouldClaimWithinMerchantBudgetAndDeferTheRest() {
+        // Arrange
+        when(webhookService.claimDueEvents(10, 1)).thenReturn(List.of(event(1L, 1L), event(2L, 1L), event(3L, 2L)));
+        when(merchantRepository.findAllById(any())).thenReturn(List.of(merchant(1L), merchant(2L)));
+        doReturn(new CompletableFuture<>()).when(httpClient).sendAsync(any(), any());
+        
+        // Act
+        dispatcher.poll();
+        
+        // Assert
+        verify(httpClient, times(2)).sendAsync(any(), any());
+        verify(webhookService).releaseClaims(List.of(2L));
+    }
+    
+    @Test
+    void poll_ShouldWriteBackOutcomesOnTheNextPoll() {
+        // Arrange
+        HttpResponse<?> ok = mock(HttpResponse.class);
+        when(ok.statusCode()).thenReturn(200);
+        HttpResponse<?> unavailable = mock(HttpResponse.class);
+        when(unavailable.statusCode()).thenReturn(503);
+        when(webhookService.claimDueEvents(10, 1))
+            .thenReturn(List.of(event(1L, 1L), event(2L, 2L), event(3L, 3L), event(4L, 4L)))
+            .thenReturn(List.of());
+        Merchant withoutUrl = merchant(4L);
+        withoutUrl.setWebhookUrl(null);
+        when(merchantRepository.findAllById(any())).thenReturn(List.of(merchant(1L), merchant(2L), merchant(3L), withoutUrl));
+        doReturn(CompletableFuture.completedFuture(ok))
+            .doReturn(CompletableFuture.completedFuture(unavailable))
+            .doReturn(CompletableFuture.failedFuture(new IOException("Connection refused")))
+            .when(httpClient).sendAsync(any(), any());
+        
+        // Act
+        dispatcher.poll();
+        dispatcher.poll();
+        
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DeliveryOutcome>> captor = ArgumentCaptor.forClass(List.class);
+        verify(webhookService).recordOutcomes(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrder(
+            DeliveryOutcome.giveUp(4L, "No webhook URL configured"),
+            DeliveryOutcome.success(1L),
+            DeliveryOutcome.retry(2L, "HTTP 503"),
+            DeliveryOutcome.retry(3L, "Connection refused")
+        );
+        verify(webhookService, never()).releaseClaims(any());
+    }
+    
+    @Test
+    void poll_AfterDeliveryCompletes_ShouldFreeTheMerchantBudget() {
+        // Arrange
+        HttpResponse<?> ok = mock(HttpResponse.class);
+        when(ok.statusCode()).thenReturn(200);
+        when(webhookService.claimDueEvents(10, 1))
+            .thenReturn(List.of(event(1L, 1L)))
+            .thenReturn(List.of(event(2L, 1L)));
+        when(merchantRepository.findAllById(any())).thenReturn(List.of(merchant(1L)));
+        doReturn(CompletableFuture.completedFuture(ok)).when(httpClient).sendAsync(any(), any());
+        
+        // Act
+        dispatcher.poll();
+        dispatcher.poll();
+        
+        // Assert
+        verify(httpClient, times(2)).sendAsync(any(), any());
+        verify(webhookService, never()).releaseClaims(any());
+    }
+    
+    private static ClaimedEvent event(Long id, Long merchantId) {
+        return new ClaimedEvent(id, merchantId, WebhookEvent.WebhookEventType.TRANSACTION_COMPLETED, "{}");
+    }
+    
+    private static Merchant merchant(Long id) {
+        return Merchant.builder()
+            .id(id)
+            .webhookUrl("https://merchant-" + id + ".example.com/webhooks")
+            .webhookSecret("secret-" + id)
+            .build();
+    }
+}
+
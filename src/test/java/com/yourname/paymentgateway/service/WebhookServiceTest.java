@@ -0,0 +1,118 @@
+package com.yourname.paymentgateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.yourname.paymentgateway.entity.Merchant;
+import com.yourname.paymentgateway.entity.Transaction;
+import com.yourname.paymentgateway.entity.WebhookEvent;
+import com.yourname.paymentgateway.enums.TransactionStatus;
+import com.yourname.paymentgateway.repository.WebhookEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookServiceTest {
+    
+    @Mock
+    private WebhookEventRepository webhookEventRepository;
+    
+    private WebhookService webhookService;
+    
+    @BeforeEach
+    void setUp() {
+        webhookService = new WebhookService(webhookEventRepository, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+    
+    @Test
+    void sendTransactionFailedEvent_ShouldWriteOutboxRowWithoutWebhookUrl() {
+        // Arrange
+        Merchant merchant = Merchant.builder().id(7L).build();
+        Transaction transaction = Transaction.builder()
+            .id(42L)
+            .transactionId(UUID.randomUUID())
+            .merchant(merchant)
+            .amount(new BigDecimal("10.00"))
+            .currency("USD")
+            .status(TransactionStatus.FAILED)
+            .build();
+        
+        // Act
+        webhookService.sendTransactionFailedEvent(transaction);
+        
+        // Assert
+        ArgumentCaptor<WebhookEvent> captor = ArgumentCaptor.forClass(WebhookEvent.class);
+        verify(webhookEventRepository).save(captor.capture());
+        WebhookEvent event = captor.getValue();
+        assertThat(event.getMerchantId()).isEqualTo(7L);
+        assertThat(event.getTransactionId()).isEqualTo(42L);
+        assertThat(event.getEventType()).isEqualTo(WebhookEvent.WebhookEventType.TRANSACTION_FAILED);
+        assertThat(event.getStatus()).isEqualTo(WebhookEvent.WebhookStatus.PENDING);
+        assertThat(event.getPayload()).contains("\"eventType\":\"transaction.failed\"");
+    }
+    
+    @Test
+    void recordOutcomes_ShouldMarkSuccessesTogetherAndScheduleRetries() {
+        // Arrange
+        WebhookEvent retried = pendingEvent(2L, 0);
+        WebhookEvent abandoned = pendingEvent(3L, 0);
+        when(webhookEventRepository.findAllById(any())).thenReturn(List.of(retried, abandoned));
+        
+        // Act
+        webhookService.recordOutcomes(List.of(
+            WebhookService.DeliveryOutcome.success(1L),
+            WebhookService.DeliveryOutcome.retry(2L, "HTTP 503"),
+            WebhookService.DeliveryOutcome.giveUp(3L, "No webhook URL configured")
+        ));
+        
+        // Assert
+        verify(webhookEventRepository).markDelivered(eq(List.of(1L)), eq(WebhookEvent.WebhookStatus.SENT), any());
+        assertThat(retried.getStatus()).isEqualTo(WebhookEvent.WebhookStatus.PENDING);
+        assertThat(retried.getAttemptCount()).isEqualTo(1);
+        assertThat(retried.getLastError()).isEqualTo("HTTP 503");
+        assertThat(retried.getNextRetryAt()).isNotNull();
+        assertThat(abandoned.getStatus()).isEqualTo(WebhookEvent.WebhookStatus.FAILED);
+        verify(webhookEventRepository).saveAll(List.of(retried, abandoned));
+    }
+    
+    @Test
+    void recordOutcomes_OnLastAttempt_ShouldMarkEventFailed() {
+        // Arrange
+        WebhookEvent event = pendingEvent(2L, 4);
+        when(webhookEventRepository.findAllById(any())).thenReturn(List.of(event));
+        
+        // Act
+        webhookService.recordOutcomes(List.of(WebhookService.DeliveryOutcome.retry(2L, "Connection refused")));
+        
+        // Assert
+        assertThat(event.getAttemptCount()).isEqualTo(5);
+        assertThat(event.getStatus()).isEqualTo(WebhookEvent.WebhookStatus.FAILED);
+        verify(webhookEventRepository, never()).markDelivered(any(), any(), any());
+    }
+    
+    private static WebhookEvent pendingEvent(Long id, int attempts) {
+        return WebhookEvent.builder()
+            .id(id)
+            .merchantId(7L)
+            .eventType(WebhookEvent.WebhookEventType.TRANSACTION_COMPLETED)
+            .payload("{}")
+            .status(WebhookEvent.WebhookStatus.PENDING)
+            .attemptCount(attempts)
+            .build();
+    }
+}
+
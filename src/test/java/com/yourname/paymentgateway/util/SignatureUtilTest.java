@@ -0,0 +1,69 @@
+package com.yourname.paymentgateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignatureUtilTest {
+    
+    @Test
+    void generateHmacSignature_ShouldMatchRfc4231Vector() {
+        // Act
+        String signature = SignatureUtil.generateHmacSignature("what do ya want for nothing?", "Jefe");
+        
+        // Assert
+        assertThat(signature).isEqualTo("5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843");
+    }
+    
+    @Test
+    void generateHmacSignature_WhenSwitchingSecrets_ShouldUseEachSecret() {
+        // Act
+        String first = SignatureUtil.generateHmacSignature("payload", "secret-a");
+        String second = SignatureUtil.generateHmacSignature("payload", "secret-b");
+        String firstAgain = SignatureUtil.generateHmacSignature("payload", "secret-a");
+        
+        // Assert
+        assertThat(first).isNotEqualTo(second).isEqualTo(firstAgain);
+    }
+    
+    @Test
+    void generateHmacSignature_FromManyThreads_ShouldNotShareMacState() {
+        // Arrange
+        String expected = SignatureUtil.generateHmacSignature("what do ya want for nothing?", "Jefe");
+        
+        // Act: every thread signs with the same cached prototype
+        List<String> signatures = IntStream.range(0, 1000)
+            .parallel()
+            .mapToObj(i -> SignatureUtil.generateHmacSignature("what do ya want for nothing?", "Jefe"))
+            .collect(Collectors.toList());
+        
+        // Assert
+        assertThat(signatures).containsOnly(expected);
+    }
+    
+    @Test
+    void verifySignature_ShouldRejectTamperedOrMissingSignature() {
+        // Arrange
+        String signature = SignatureUtil.generateHmacSignature("payload", "secret");
+        String tampered = (signature.charAt(0) == 'a' ? "b" : "a") + signature.substring(1);
+        
+        // Act & Assert
+        assertThat(SignatureUtil.verifySignature("payload", signature, "secret")).isTrue();
+        assertThat(SignatureUtil.verifySignature("payload", tampered, "secret")).isFalse();
+        assertThat(SignatureUtil.verifySignature("payload", null, "secret")).isFalse();
+    }
+    
+    @Test
+    void sha256_ShouldMatchKnownDigest() {
+        // Act
+        String hash = HashUtil.sha256("abc");
+        
+        // Assert
+        assertThat(hash).isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+}
+